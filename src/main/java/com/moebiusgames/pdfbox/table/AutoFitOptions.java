@@ -0,0 +1,109 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2019-2022 MobiusCode GmbH.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.moebiusgames.pdfbox.table;
+
+import java.util.concurrent.Executor;
+
+/**
+ * configures how {@link PDFTable#autoFitColumns(AutoFitOptions)} measures
+ * the content: on large tables only a sample of evenly distributed rows is
+ * measured, in chunks on an executor.
+ */
+public final class AutoFitOptions {
+
+    public static final int DEFAULT_MAX_SAMPLE_ROWS = 2000;
+    public static final int DEFAULT_CHUNK_SIZE = 256;
+
+    private int maxSampleRows = DEFAULT_MAX_SAMPLE_ROWS;
+    private int chunkSize = DEFAULT_CHUNK_SIZE;
+    private boolean parallel = true;
+    private Executor executor = null;
+
+    public int getMaxSampleRows() {
+        return maxSampleRows;
+    }
+
+    /**
+     * sets the max amount of rows to measure
+     *
+     * @param maxSampleRows the max amount of rows or NOT_SET to measure all rows
+     * @return this object for chaining
+     */
+    public AutoFitOptions setMaxSampleRows(int maxSampleRows) {
+        if (maxSampleRows <= 0 && maxSampleRows != PDFTable.NOT_SET) {
+            throw new IllegalArgumentException("max sample rows must be positive");
+        }
+        this.maxSampleRows = maxSampleRows;
+        return this;
+    }
+
+    public int getChunkSize() {
+        return chunkSize;
+    }
+
+    /**
+     * sets the amount of rows that are measured per task
+     *
+     * @param chunkSize the amount of rows per task
+     * @return this object for chaining
+     */
+    public AutoFitOptions setChunkSize(int chunkSize) {
+        if (chunkSize <= 0) {
+            throw new IllegalArgumentException("chunk size must be positive");
+        }
+        this.chunkSize = chunkSize;
+        return this;
+    }
+
+    public boolean isParallel() {
+        return parallel;
+    }
+
+    /**
+     * sets if the chunks are measured in parallel
+     *
+     * @param parallel true to measure in parallel
+     * @return this object for chaining
+     */
+    public AutoFitOptions setParallel(boolean parallel) {
+        this.parallel = parallel;
+        return this;
+    }
+
+    /**
+     * returns the executor to measure on, null means the
+     * default executor of asynchronous rendering
+     *
+     * @return the executor or null
+     */
+    public Executor getExecutor() {
+        return executor;
+    }
+
+    public AutoFitOptions setExecutor(Executor executor) {
+        this.executor = executor;
+        return this;
+    }
+
+}
@@ -0,0 +1,63 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2019-2022 MobiusCode GmbH.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.moebiusgames.pdfbox.table;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+
+/**
+ * an output stream that writes into a given (e.g. direct) byte buffer
+ */
+final class ByteBufferOutputStream extends OutputStream {
+
+    private final ByteBuffer target;
+
+    ByteBufferOutputStream(ByteBuffer target) {
+        if (target == null) {
+            throw new IllegalArgumentException("null is not allowed");
+        }
+        this.target = target;
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+        ensureRemaining(1);
+        target.put((byte) b);
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) throws IOException {
+        ensureRemaining(len);
+        target.put(b, off, len);
+    }
+
+    private void ensureRemaining(int len) throws IOException {
+        if (target.remaining() < len) {
+            throw new IOException("The buffer is too small, only "
+                    + target.remaining() + " of " + len + " bytes remaining");
+        }
+    }
+
+}
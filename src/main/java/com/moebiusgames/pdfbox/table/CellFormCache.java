@@ -0,0 +1,230 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2019-2022 MobiusCode GmbH.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.moebiusgames.pdfbox.table;
+
+import java.awt.Color;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.pdmodel.font.PDFont;
+import org.apache.pdfbox.pdmodel.graphics.form.PDFormXObject;
+
+/**
+ * An opt-in cache for cells that render identically, like "N/A" or
+ * fixed status labels. The background and text of such cells are recorded
+ * once as a form xobject and every repetition just references that form.
+ * The borders are still drawn per cell as they depend on the neighboring cells.
+ *
+ * A cell is identified by its content, its effective style, its width and the
+ * height of the row. A cell is only recorded as a form once it occurs for the
+ * second time, so that unique cells don't add the overhead of a form. As form xobjects belong to a document, a cache instance
+ * must only be used for one document. Enable it with
+ * {@link PDFRenderContext#setCellFormCache(CellFormCache)}.
+ */
+public final class CellFormCache {
+
+    public static final int DEFAULT_MAX_SIZE = 256;
+
+    private final Map<Key, PDFormXObject> forms = new LinkedHashMap<Key, PDFormXObject>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Key, PDFormXObject> eldest) {
+            if (size() > maxSize) {
+                evictionCount++;
+                return true;
+            }
+            return false;
+        }
+    };
+
+    // keys that have been seen once but are not recorded yet
+    private final Map<Key, Boolean> candidates = new LinkedHashMap<Key, Boolean>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Key, Boolean> eldest) {
+            return size() > maxSize;
+        }
+    };
+
+    private final int maxSize;
+    private PDDocument document = null;
+    private long hitCount;
+    private long missCount;
+    private long evictionCount;
+
+    public CellFormCache() {
+        this(DEFAULT_MAX_SIZE);
+    }
+
+    /**
+     * creates a new cache
+     *
+     * @param maxSize the max amount of different cells to keep
+     */
+    public CellFormCache(int maxSize) {
+        if (maxSize <= 0) {
+            throw new IllegalArgumentException("max size must be positive");
+        }
+        this.maxSize = maxSize;
+    }
+
+    /**
+     * binds this cache to the given document
+     *
+     * @param document the document the forms will belong to
+     */
+    synchronized void bind(PDDocument document) {
+        if (this.document != null && this.document != document) {
+            throw new IllegalStateException("This cache is already used for another document");
+        }
+        this.document = document;
+    }
+
+    synchronized PDDocument getDocument() {
+        return document;
+    }
+
+    synchronized PDFormXObject get(Key key) {
+        final PDFormXObject form = forms.get(key);
+        if (form != null) {
+            hitCount++;
+        } else {
+            missCount++;
+        }
+        return form;
+    }
+
+    /**
+     * returns true if the cell with the given key should be recorded
+     * as a form, which is the case when it was seen before
+     *
+     * @param key the key of the cell
+     * @return true if the cell should be recorded
+     */
+    synchronized boolean admit(Key key) {
+        return candidates.put(key, Boolean.TRUE) != null;
+    }
+
+    synchronized void put(Key key, PDFormXObject form) {
+        candidates.remove(key);
+        forms.put(key, form);
+    }
+
+    public int getMaxSize() {
+        return maxSize;
+    }
+
+    public synchronized int size() {
+        return forms.size();
+    }
+
+    public synchronized long getHitCount() {
+        return hitCount;
+    }
+
+    public synchronized long getMissCount() {
+        return missCount;
+    }
+
+    public synchronized long getEvictionCount() {
+        return evictionCount;
+    }
+
+    /**
+     * returns the ratio of cells that could be placed by reference
+     *
+     * @return the hit rate between 0 and 1
+     */
+    public synchronized double getHitRate() {
+        final long total = hitCount + missCount;
+        return total == 0 ? 0 : (double) hitCount / total;
+    }
+
+    /**
+     * identifies cells that render identically
+     */
+    static final class Key {
+        private final String content;
+        private final TextType textType;
+        private final PDFont font;
+        private final int fontSize;
+        private final Color fontColor;
+        private final Color backgroundColor;
+        private final Align align;
+        private final Boolean underline;
+        private final float lineSpacingFactor;
+        private final float[] geometry;
+        private final int hashCode;
+
+        Key(PDFTableCell cell, Align align, float rowHeight) {
+            this.content = cell.getContent();
+            this.textType = cell.getTextType();
+            this.font = cell.getFont();
+            this.fontSize = cell.getFontSize();
+            this.fontColor = cell.getFontColor();
+            this.backgroundColor = cell.getBackgroundColor();
+            this.align = align;
+            this.underline = cell.getUnderline();
+            this.lineSpacingFactor = cell.getLineSpacingFactor();
+            //the border widths are needed as the background is drawn within the borders
+            this.geometry = new float[]{
+                cell.getWidth(), rowHeight,
+                cell.getPaddingLeft(), cell.getPaddingRight(), cell.getPaddingTop(), cell.getPaddingBottom(),
+                cell.readBorderLeft().getLineWidth(), cell.readBorderRight().getLineWidth(),
+                cell.readBorderTop().getLineWidth(), cell.readBorderBottom().getLineWidth()
+            };
+            this.hashCode = Objects.hash(content, textType, font, fontSize, fontColor,
+                    backgroundColor, align, underline, lineSpacingFactor,
+                    Arrays.hashCode(geometry));
+        }
+
+        @Override
+        public int hashCode() {
+            return hashCode;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj) {
+                return true;
+            }
+            if (!(obj instanceof Key)) {
+                return false;
+            }
+            final Key other = (Key) obj;
+            return this.hashCode == other.hashCode
+                    && this.fontSize == other.fontSize
+                    && this.lineSpacingFactor == other.lineSpacingFactor
+                    && this.textType == other.textType
+                    && this.align == other.align
+                    && Objects.equals(this.content, other.content)
+                    && Objects.equals(this.font, other.font)
+                    && Objects.equals(this.fontColor, other.fontColor)
+                    && Objects.equals(this.backgroundColor, other.backgroundColor)
+                    && Objects.equals(this.underline, other.underline)
+                    && Arrays.equals(this.geometry, other.geometry);
+        }
+    }
+
+}
@@ -0,0 +1,46 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2019-2022 MobiusCode GmbH.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.moebiusgames.pdfbox.table;
+
+import java.io.IOException;
+
+/**
+ * Receives the checkpoints of a render, see
+ * {@link TableRenderSession#setCheckpoints(int, CheckpointListener)}
+ */
+@FunctionalInterface
+public interface CheckpointListener {
+
+    /**
+     * called when the rows of a table continue on a new page. All pages
+     * of the render context but the last one are complete at this point
+     * and are not changed by the render anymore.
+     *
+     * @param renderContext the render context
+     * @param checkpoint the state to resume the render at the new page
+     * @throws IOException
+     */
+    void checkpoint(PDFRenderContext renderContext, RenderCheckpoint checkpoint) throws IOException;
+
+}
@@ -0,0 +1,195 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2019-2022 MobiusCode GmbH.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.moebiusgames.pdfbox.table;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.List;
+import org.apache.pdfbox.cos.COSDictionary;
+import org.apache.pdfbox.io.IOUtils;
+import org.apache.pdfbox.multipdf.PDFMergerUtility;
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.pdmodel.PDPage;
+
+/**
+ * Stores the checkpoints of a render in a directory: at every checkpoint
+ * the pages completed since the previous one are saved as a segment
+ * (a PDF file of their own) and then the checkpoint is replaced atomically.
+ * So saving is incremental and a render that is interrupted at any point
+ * can be resumed at the last checkpoint:
+ *
+ * <pre>
+ * CheckpointSegments segments = new CheckpointSegments(directory);
+ * RenderCheckpoint checkpoint = segments.getLastCheckpoint();
+ * TableRenderSession session = checkpoint == null
+ *         ? table.startSession(renderContext, x)
+ *         : table.resumeSession(renderContext, x, checkpoint);
+ * session.setCheckpoints(100, segments);
+ * session.appendRows(source); // positioned at session.getRenderedRows()
+ * segments.finish(renderContext);
+ * segments.merge(out);
+ * </pre>
+ *
+ * A resumed render needs a new render context with a single empty page.
+ * The segments don't share resources, so the merged document contains
+ * the fonts once per segment.
+ */
+public final class CheckpointSegments implements CheckpointListener {
+
+    private static final String CHECKPOINT_FILE = "checkpoint";
+    private static final String SEGMENT_PREFIX = "segment-";
+    private static final String SEGMENT_SUFFIX = ".pdf";
+
+    private final Path directory;
+    private int segmentCount = 0;
+    private PDFRenderContext renderContext = null;
+    private int savedPages = 0;
+
+    /**
+     * creates the segments in the given directory
+     *
+     * @param directory the directory, it is created if needed
+     * @throws IOException
+     */
+    public CheckpointSegments(Path directory) throws IOException {
+        if (directory == null) {
+            throw new IllegalArgumentException("null is not allowed");
+        }
+        this.directory = Files.createDirectories(directory);
+    }
+
+    /**
+     * returns the last checkpoint stored in the directory or null if there
+     * is none. Segments that were saved after it are deleted, so the
+     * render can continue at the checkpoint.
+     *
+     * @return the checkpoint or null
+     * @throws IOException
+     */
+    public RenderCheckpoint getLastCheckpoint() throws IOException {
+        RenderCheckpoint checkpoint = null;
+        segmentCount = 0;
+        final Path checkpointFile = directory.resolve(CHECKPOINT_FILE);
+        if (Files.exists(checkpointFile)) {
+            try (DataInputStream in = new DataInputStream(Files.newInputStream(checkpointFile))) {
+                segmentCount = in.readInt();
+                checkpoint = RenderCheckpoint.readFrom(in);
+            }
+        }
+        for (int i = segmentCount; Files.deleteIfExists(getSegment(i)); ++i) {
+            // segment of an interrupted render after the checkpoint
+        }
+        return checkpoint;
+    }
+
+    public int getSegmentCount() {
+        return segmentCount;
+    }
+
+    @Override
+    public void checkpoint(PDFRenderContext renderContext, RenderCheckpoint checkpoint) throws IOException {
+        // the last page is the new page the checkpoint was taken for
+        saveSegment(renderContext, renderContext.getPageCount() - 1);
+
+        final Path tempFile = directory.resolve(CHECKPOINT_FILE + ".tmp");
+        try (DataOutputStream out = new DataOutputStream(Files.newOutputStream(tempFile))) {
+            out.writeInt(segmentCount);
+            checkpoint.writeTo(out);
+        }
+        move(tempFile, directory.resolve(CHECKPOINT_FILE));
+    }
+
+    /**
+     * saves the pages that were rendered after the last checkpoint
+     * as last segment, call this when the render is complete
+     *
+     * @param renderContext the render context
+     * @throws IOException
+     */
+    public void finish(PDFRenderContext renderContext) throws IOException {
+        saveSegment(renderContext, renderContext.getPageCount());
+    }
+
+    /**
+     * merges all segments into one document
+     *
+     * @param out the stream to write the document to, it is not closed
+     * @throws IOException
+     */
+    public void merge(OutputStream out) throws IOException {
+        final PDFMergerUtility merger = new PDFMergerUtility();
+        for (int i = 0; i < segmentCount; ++i) {
+            merger.addSource(getSegment(i).toFile());
+        }
+        merger.setDestinationStream(out);
+        merger.mergeDocuments(IOUtils.createTempFileOnlyStreamCache(), PDFUtils.COMPACT_OUTPUT);
+    }
+
+    /**
+     * saves the pages of the render context from the last saved page to
+     * the given page (exclusive) as the next segment
+     */
+    private void saveSegment(PDFRenderContext renderContext, int toPage) throws IOException {
+        if (this.renderContext != renderContext) {
+            // a new render context (of a resumed render) starts at its first page
+            this.renderContext = renderContext;
+            this.savedPages = 0;
+        }
+        if (toPage <= savedPages) {
+            return;
+        }
+        renderContext.closeAllPages();
+        final List<PDFPageWithStream> pages = renderContext.getPages();
+        try (PDDocument segment = new PDDocument()) {
+            for (int i = savedPages; i < toPage; ++i) {
+                // a shallow copy, so the page stays part of the document of the context
+                segment.addPage(new PDPage(new COSDictionary(pages.get(i).getPage().getCOSObject())));
+            }
+            final Path tempFile = directory.resolve(SEGMENT_PREFIX + "tmp" + SEGMENT_SUFFIX);
+            PDFUtils.save(segment, tempFile, renderContext.getOutputMode());
+            move(tempFile, getSegment(segmentCount));
+        }
+        segmentCount++;
+        savedPages = toPage;
+    }
+
+    private Path getSegment(int index) {
+        return directory.resolve(String.format("%s%06d%s", SEGMENT_PREFIX, index, SEGMENT_SUFFIX));
+    }
+
+    private static void move(Path source, Path target) throws IOException {
+        try {
+            Files.move(source, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(source, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+}
@@ -0,0 +1,310 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2019-2022 MobiusCode GmbH.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.moebiusgames.pdfbox.table;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.regex.Pattern;
+import org.apache.pdfbox.pdmodel.font.PDFont;
+
+/**
+ * Fits the widths of columns to their content. The content of the given
+ * (sampled) rows is measured with the glyph metrics of the fonts only, no
+ * layout is done. The width of the columns is then distributed between
+ * their min width (the widest word) and max width (the widest line) so
+ * that the estimated height of the sampled rows is as small as possible
+ * (with many rows, the height is estimated on an evenly spread subset).
+ */
+final class ColumnAutoFit {
+
+    private static final int DISTRIBUTION_STEPS = 100;
+    private static final int MAX_DISTRIBUTION_ROWS = 4096;
+    private static final Pattern SPACES = Pattern.compile(" +");
+
+    private final List<PDFTableColumn> columns;
+    private final int[] fitColumns;
+
+    ColumnAutoFit(List<PDFTableColumn> columns, int[] fitColumns) {
+        this.columns = columns;
+        this.fitColumns = fitColumns;
+    }
+
+    void fit(List<PDFTableRow> rows, AutoFitOptions options) {
+        final CellMeasure[][] measures = measure(rows, options);
+        final int columnCount = columns.size();
+
+        // min and max widths of the columns to fit
+        final float[] minWidths = new float[columnCount];
+        final float[] maxWidths = new float[columnCount];
+        float available = 0;
+        float totalMin = 0;
+        float totalMax = 0;
+        for (int colIndex : fitColumns) {
+            final PDFTableColumn column = columns.get(colIndex);
+            final float padding = column.getPaddingLeft() + column.getPaddingRight();
+            float min = padding + 1;
+            float max = min;
+            for (CellMeasure[] row : measures) {
+                final CellMeasure measure = row[colIndex];
+                if (measure != null) {
+                    min = Math.max(min, measure.minWidth + measure.padding);
+                    max = Math.max(max, measure.maxWidth + measure.padding);
+                }
+            }
+            minWidths[colIndex] = min;
+            maxWidths[colIndex] = max;
+            available += column.getWidth();
+            totalMin += min;
+            totalMax += max;
+        }
+
+        final float[] widths = new float[columnCount];
+        for (int i = 0; i < columnCount; ++i) {
+            widths[i] = columns.get(i).getWidth();
+        }
+        if (totalMax <= available) {
+            // everything fits on one line, share the rest by max width
+            for (int colIndex : fitColumns) {
+                widths[colIndex] = maxWidths[colIndex] + (available - totalMax) * maxWidths[colIndex] / totalMax;
+            }
+        } else if (totalMin >= available) {
+            // not even the widest words fit, squeeze by min width
+            for (int colIndex : fitColumns) {
+                widths[colIndex] = available * minWidths[colIndex] / totalMin;
+            }
+        } else {
+            for (int colIndex : fitColumns) {
+                widths[colIndex] = minWidths[colIndex];
+            }
+            distribute(selectRows(measures), widths, maxWidths, available - totalMin);
+        }
+
+        for (int colIndex : fitColumns) {
+            columns.get(colIndex).setWidth(widths[colIndex]);
+        }
+    }
+
+    /**
+     * hands out the remaining width in small steps, each to the column
+     * whose widening reduces the estimated height of all rows the most
+     */
+    private void distribute(CellMeasure[][] measures, float[] widths, float[] maxWidths, float remaining) {
+        final float step = remaining / DISTRIBUTION_STEPS;
+        final int columnCount = widths.length;
+        final float[][] heights = new float[measures.length][columnCount];
+        for (int rowIndex = 0; rowIndex < measures.length; ++rowIndex) {
+            for (int colIndex = 0; colIndex < columnCount; ++colIndex) {
+                heights[rowIndex][colIndex] = getHeight(measures[rowIndex][colIndex], widths[colIndex]);
+            }
+        }
+        final float[] firstMax = new float[measures.length];
+        final float[] secondMax = new float[measures.length];
+        final int[] maxColumn = new int[measures.length];
+
+        for (int i = 0; i < DISTRIBUTION_STEPS; ++i) {
+            // the highest and second highest cell of each row
+            for (int rowIndex = 0; rowIndex < measures.length; ++rowIndex) {
+                float first = 0;
+                float second = 0;
+                int firstColumn = -1;
+                for (int colIndex = 0; colIndex < columnCount; ++colIndex) {
+                    final float height = heights[rowIndex][colIndex];
+                    if (height > first) {
+                        second = first;
+                        first = height;
+                        firstColumn = colIndex;
+                    } else if (height > second) {
+                        second = height;
+                    }
+                }
+                firstMax[rowIndex] = first;
+                secondMax[rowIndex] = second;
+                maxColumn[rowIndex] = firstColumn;
+            }
+
+            int bestColumn = -1;
+            double bestTotal = Double.MAX_VALUE;
+            for (int colIndex : fitColumns) {
+                if (widths[colIndex] >= maxWidths[colIndex]) {
+                    continue;
+                }
+                final float width = widths[colIndex] + step;
+                double total = 0;
+                for (int rowIndex = 0; rowIndex < measures.length; ++rowIndex) {
+                    final float others = maxColumn[rowIndex] == colIndex
+                            ? secondMax[rowIndex]
+                            : firstMax[rowIndex];
+                    total += Math.max(others, getHeight(measures[rowIndex][colIndex], width));
+                }
+                if (total < bestTotal
+                        || (total == bestTotal
+                        && maxWidths[colIndex] - widths[colIndex] > maxWidths[bestColumn] - widths[bestColumn])) {
+                    bestTotal = total;
+                    bestColumn = colIndex;
+                }
+            }
+            if (bestColumn < 0) {
+                break;
+            }
+            widths[bestColumn] += step;
+            remaining -= step;
+            for (int rowIndex = 0; rowIndex < measures.length; ++rowIndex) {
+                heights[rowIndex][bestColumn] = getHeight(measures[rowIndex][bestColumn], widths[bestColumn]);
+            }
+        }
+
+        // all columns reached their max width: share the rest by max width
+        if (remaining > 0.001f) {
+            float totalMax = 0;
+            for (int colIndex : fitColumns) {
+                totalMax += widths[colIndex];
+            }
+            final float factor = (totalMax + remaining) / totalMax;
+            for (int colIndex : fitColumns) {
+                widths[colIndex] *= factor;
+            }
+        }
+    }
+
+    private static CellMeasure[][] selectRows(CellMeasure[][] measures) {
+        if (measures.length <= MAX_DISTRIBUTION_ROWS) {
+            return measures;
+        }
+        final CellMeasure[][] selected = new CellMeasure[MAX_DISTRIBUTION_ROWS][];
+        for (int i = 0; i < MAX_DISTRIBUTION_ROWS; ++i) {
+            selected[i] = measures[(int) ((long) i * measures.length / MAX_DISTRIBUTION_ROWS)];
+        }
+        return selected;
+    }
+
+    private static float getHeight(CellMeasure measure, float width) {
+        if (measure == null) {
+            return 0;
+        }
+        final float textWidth = Math.max(1, width - measure.padding);
+        int lines = 0;
+        for (float lineWidth : measure.lineWidths) {
+            lines += lineWidth <= textWidth ? 1 : (int) Math.ceil(lineWidth / textWidth);
+        }
+        return Math.max(1, lines) * measure.lineHeight + measure.verticalPadding;
+    }
+
+    private CellMeasure[][] measure(List<PDFTableRow> rows, AutoFitOptions options) {
+        final CellMeasure[][] measures = new CellMeasure[rows.size()][];
+        final int chunkSize = options.getChunkSize();
+        if (!options.isParallel() || rows.size() <= chunkSize
+                || (options.getExecutor() == null && Runtime.getRuntime().availableProcessors() == 1)) {
+            measureChunk(rows, measures, 0, rows.size());
+            return measures;
+        }
+        final Executor executor = options.getExecutor() != null
+                ? options.getExecutor()
+                : RenderExecutors.getDefault();
+        final List<CompletableFuture<Void>> chunks = new ArrayList<>();
+        for (int from = 0; from < rows.size(); from += chunkSize) {
+            final int start = from;
+            final int end = Math.min(rows.size(), from + chunkSize);
+            chunks.add(CompletableFuture.runAsync(() -> measureChunk(rows, measures, start, end), executor));
+        }
+        CompletableFuture.allOf(chunks.toArray(new CompletableFuture<?>[0])).join();
+        return measures;
+    }
+
+    private void measureChunk(List<PDFTableRow> rows, CellMeasure[][] measures, int from, int to) {
+        final FontMetrics fontMetrics = new FontMetrics();
+        for (int rowIndex = from; rowIndex < to; ++rowIndex) {
+            final PDFTableRow row = rows.get(rowIndex);
+            final CellMeasure[] rowMeasures = new CellMeasure[columns.size()];
+            for (int colIndex = 0; colIndex < row.cells.size(); ++colIndex) {
+                final PDFTableCell cell = row.cells.get(colIndex);
+                // multi column cells are left out
+                if (cell != null && cell.getSize() == 1) {
+                    rowMeasures[colIndex] = new CellMeasure(cell, fontMetrics);
+                }
+            }
+            measures[rowIndex] = rowMeasures;
+        }
+    }
+
+    /**
+     * remembers the metrics of the fonts used in a chunk, as they are
+     * looked up in synchronized caches otherwise
+     */
+    private static final class FontMetrics {
+        private final Map<PDFont, GlyphWidths> glyphWidths = new IdentityHashMap<>();
+        private final Map<PDFont, Map<Integer, Float>> heights = new IdentityHashMap<>();
+
+        GlyphWidths getGlyphWidths(PDFont font) {
+            return glyphWidths.computeIfAbsent(font, GlyphWidths::of);
+        }
+
+        float getHeight(PDFont font, int fontSize) {
+            return heights.computeIfAbsent(font, f -> new HashMap<>())
+                    .computeIfAbsent(fontSize, size -> Utils.getFontHeight(font, size));
+        }
+    }
+
+    /**
+     * the measured content of a single cell
+     */
+    private static final class CellMeasure {
+        private final float minWidth;
+        private final float maxWidth;
+        private final float[] lineWidths;
+        private final float lineHeight;
+        private final float padding;
+        private final float verticalPadding;
+
+        CellMeasure(PDFTableCell cell, FontMetrics fontMetrics) {
+            final GlyphWidths glyphWidths = fontMetrics.getGlyphWidths(cell.getFont());
+            final float fontSize = cell.getFontSize();
+            final float spaceWidth = glyphWidths.getWidth(" ", fontSize);
+            final String[] lines = cell.getMeasurableText().trim().split("\n");
+            float min = 0;
+            float max = 0;
+            this.lineWidths = new float[lines.length];
+            for (int i = 0; i < lines.length; ++i) {
+                float lineWidth = 0;
+                for (String word : SPACES.split(lines[i].trim())) {
+                    final float wordWidth = glyphWidths.getWidth(word, fontSize);
+                    min = Math.max(min, wordWidth);
+                    lineWidth += (lineWidth > 0 ? spaceWidth : 0) + wordWidth;
+                }
+                lineWidths[i] = lineWidth;
+                max = Math.max(max, lineWidth);
+            }
+            this.minWidth = min;
+            this.maxWidth = max;
+            this.lineHeight = fontMetrics.getHeight(cell.getFont(), cell.getFontSize()) * (1.0f + cell.getLineSpacingFactor());
+            this.padding = cell.getPaddingLeft() + cell.getPaddingRight();
+            this.verticalPadding = cell.getPaddingTop() + cell.getPaddingBottom();
+        }
+    }
+
+}
@@ -0,0 +1,125 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2019-2022 MobiusCode GmbH.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.moebiusgames.pdfbox.table;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.zip.Deflater;
+import org.apache.pdfbox.cos.COSName;
+import org.apache.pdfbox.cos.COSStream;
+import org.apache.pdfbox.io.IOUtils;
+import org.apache.pdfbox.pdmodel.PDPage;
+import org.apache.pdfbox.pdmodel.common.PDStream;
+
+/**
+ * deflates the uncompressed content streams of pages with a given level
+ */
+final class ContentCompressor {
+
+    private ContentCompressor() {
+    }
+
+    /**
+     * deflates all uncompressed content streams of the page
+     */
+    static void compress(PDPage page, ContentCompression compression) throws IOException {
+        for (COSStream stream : getUncompressedStreams(page)) {
+            final byte[] raw = readRaw(stream);
+            writeDeflated(stream, deflate(raw, compression.getDeflateLevel()));
+        }
+    }
+
+    /**
+     * deflates all uncompressed content streams of the pages on the given
+     * executor. Only the deflating itself runs in parallel, reading and
+     * writing the streams (which might share the scratch file of the
+     * document) happens on the calling thread.
+     */
+    static void compress(List<PDPage> pages, ContentCompression compression, Executor executor)
+            throws IOException {
+        final List<COSStream> streams = new ArrayList<>();
+        for (PDPage page : pages) {
+            streams.addAll(getUncompressedStreams(page));
+        }
+        final List<CompletableFuture<byte[]>> deflated = new ArrayList<>(streams.size());
+        for (COSStream stream : streams) {
+            final byte[] raw = readRaw(stream);
+            deflated.add(CompletableFuture.supplyAsync(
+                    () -> deflate(raw, compression.getDeflateLevel()), executor));
+        }
+        for (int i = 0; i < streams.size(); ++i) {
+            writeDeflated(streams.get(i), deflated.get(i).join());
+        }
+    }
+
+    private static List<COSStream> getUncompressedStreams(PDPage page) {
+        final List<COSStream> streams = new ArrayList<>();
+        final Iterator<PDStream> iterator = page.getContentStreams();
+        while (iterator.hasNext()) {
+            final COSStream stream = iterator.next().getCOSObject();
+            if (stream.getItem(COSName.FILTER) == null) {
+                streams.add(stream);
+            }
+        }
+        return streams;
+    }
+
+    private static byte[] readRaw(COSStream stream) throws IOException {
+        try (InputStream in = stream.createRawInputStream()) {
+            return IOUtils.toByteArray(in);
+        }
+    }
+
+    private static byte[] deflate(byte[] raw, int level) {
+        final Deflater deflater = new Deflater(level);
+        try {
+            deflater.setInput(raw);
+            deflater.finish();
+            final ByteArrayOutputStream out = new ByteArrayOutputStream(Math.max(64, raw.length / 2));
+            final byte[] buffer = new byte[8192];
+            while (!deflater.finished()) {
+                final int len = deflater.deflate(buffer);
+                out.write(buffer, 0, len);
+            }
+            return out.toByteArray();
+        } finally {
+            deflater.end();
+        }
+    }
+
+    private static void writeDeflated(COSStream stream, byte[] deflated) throws IOException {
+        try (OutputStream out = stream.createRawOutputStream()) {
+            out.write(deflated);
+        }
+        stream.setItem(COSName.FILTER, COSName.FLATE_DECODE);
+    }
+
+}
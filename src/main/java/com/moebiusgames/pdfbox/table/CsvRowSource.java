@@ -0,0 +1,397 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2019-2022 MobiusCode GmbH.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.moebiusgames.pdfbox.table;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * A {@link RowSource} that reads a CSV or TSV file through a memory mapped
+ * window. Fields are only located while reading, their text is decoded when
+ * a cell needs it (see {@link PDFTableCell#setValue(Object)}), so the heap
+ * used for rendering a file does not depend on its size. The cell values are
+ * {@link CharSequence}s that can be formatted with the value formatters of
+ * the columns.
+ *
+ * Fields may be quoted (quotes in quoted fields are doubled) and quoted fields
+ * may contain delimiters and line breaks. Only charsets that encode the
+ * delimiter, the quote and line breaks as single ASCII bytes (like UTF-8 or
+ * ISO-8859-1) are supported.
+ *
+ * <pre>
+ * try (CsvRowSource csv = CsvRowSource.csv(file)) {
+ *     csv.readHeader();
+ *     table.render(renderContext, 20, csv, 1000);
+ * }
+ * </pre>
+ *
+ * For a constant memory conversion the document also needs to buffer its
+ * streams in a temporary file instead of the heap.
+ */
+public final class CsvRowSource implements RowSource, Closeable {
+
+    static final int DEFAULT_WINDOW_SIZE = 64 * 1024 * 1024;
+
+    private static final byte CR = '\r';
+    private static final byte LF = '\n';
+    private static final int NO_QUOTE = -1;
+
+    private final FileChannel channel;
+    private final long fileSize;
+    private final byte delimiter;
+    private final int quote;
+    private final int windowSize;
+    private Charset charset = StandardCharsets.UTF_8;
+    private int[] columnFields = null;
+
+    private ByteBuffer window = null;
+    private long windowStart = 0;
+    private int position = 0;
+
+    // the bounds of the fields of the current record in the window
+    private int fieldCount = 0;
+    private int[] fieldStarts = new int[16];
+    private int[] fieldEnds = new int[16];
+    private boolean[] fieldQuoted = new boolean[16];
+
+    CsvRowSource(Path file, char delimiter, int quote, int windowSize) throws IOException {
+        if (file == null) {
+            throw new IllegalArgumentException("null is not allowed");
+        }
+        if (delimiter > 127 || quote > 127 || delimiter == CR || delimiter == LF || delimiter == quote) {
+            throw new IllegalArgumentException("invalid delimiter or quote");
+        }
+        this.channel = FileChannel.open(file, StandardOpenOption.READ);
+        this.fileSize = channel.size();
+        this.delimiter = (byte) delimiter;
+        this.quote = quote;
+        this.windowSize = windowSize;
+    }
+
+    /**
+     * opens a comma separated file with double quotes
+     *
+     * @param file the file
+     * @return the source
+     * @throws IOException
+     */
+    public static CsvRowSource csv(Path file) throws IOException {
+        return new CsvRowSource(file, ',', '"', DEFAULT_WINDOW_SIZE);
+    }
+
+    /**
+     * opens a tab separated file without quotes
+     *
+     * @param file the file
+     * @return the source
+     * @throws IOException
+     */
+    public static CsvRowSource tsv(Path file) throws IOException {
+        return new CsvRowSource(file, '\t', NO_QUOTE, DEFAULT_WINDOW_SIZE);
+    }
+
+    /**
+     * opens a file with the given delimiter and quote
+     *
+     * @param file the file
+     * @param delimiter the delimiter of the fields
+     * @param quote the quote of the fields
+     * @return the source
+     * @throws IOException
+     */
+    public static CsvRowSource open(Path file, char delimiter, char quote) throws IOException {
+        return new CsvRowSource(file, delimiter, quote, DEFAULT_WINDOW_SIZE);
+    }
+
+    public Charset getCharset() {
+        return charset;
+    }
+
+    /**
+     * sets the charset of the file, defaults to UTF-8
+     *
+     * @param charset the charset
+     * @return this object for chaining
+     */
+    public CsvRowSource setCharset(Charset charset) {
+        if (charset == null) {
+            throw new IllegalArgumentException("null is not allowed");
+        }
+        if (!Arrays.equals(",\t\n\r\"".getBytes(charset), ",\t\n\r\"".getBytes(StandardCharsets.US_ASCII))) {
+            throw new IllegalArgumentException("charset " + charset + " is not ASCII compatible");
+        }
+        this.charset = charset;
+        return this;
+    }
+
+    /**
+     * sets which field is put into which table column. By default
+     * field n is put into column n.
+     *
+     * @param columnFields the index of the field for each table column,
+     * negative for columns that stay empty
+     * @return this object for chaining
+     */
+    public CsvRowSource setColumnFields(int... columnFields) {
+        this.columnFields = columnFields == null ? null : columnFields.clone();
+        return this;
+    }
+
+    /**
+     * reads the next record as header
+     *
+     * @return the fields of the header or null at the end of the file
+     * @throws IOException
+     */
+    public String[] readHeader() throws IOException {
+        if (!nextRecord()) {
+            return null;
+        }
+        final String[] header = new String[fieldCount];
+        for (int i = 0; i < fieldCount; ++i) {
+            header[i] = createField(i).toString();
+        }
+        return header;
+    }
+
+    @Override
+    public boolean nextRow(PDFTableRow row) throws IOException {
+        if (!nextRecord()) {
+            return false;
+        }
+        final int columns = row.cells.size();
+        for (int colIndex = 0; colIndex < columns; ++colIndex) {
+            final PDFTableCell cell = row.getCell(colIndex);
+            final int fieldIndex = columnFields == null
+                    ? colIndex
+                    : colIndex < columnFields.length ? columnFields[colIndex] : -1;
+            if (cell != null && fieldIndex >= 0 && fieldIndex < fieldCount) {
+                cell.setValue(createField(fieldIndex));
+            }
+        }
+        return true;
+    }
+
+    private CsvField createField(int fieldIndex) {
+        return new CsvField(window, fieldStarts[fieldIndex], fieldEnds[fieldIndex],
+                fieldQuoted[fieldIndex] ? (byte) quote : 0, charset);
+    }
+
+    /**
+     * locates the fields of the next record, the window is moved
+     * forward if the record does not end within the current window
+     */
+    private boolean nextRecord() throws IOException {
+        while (true) {
+            if (window == null) {
+                mapWindow(0, windowSize);
+            }
+            if (windowStart + position >= fileSize) {
+                return false;
+            }
+            final int recordStart = position;
+            if (parseRecord()) {
+                if (fieldCount == 1 && fieldStarts[0] == recordStart && fieldEnds[0] == recordStart) {
+                    // skip empty lines
+                    continue;
+                }
+                return true;
+            }
+            // the record exceeds the window: map the next window from its start
+            final boolean windowTooSmall = position == 0;
+            mapWindow(windowStart + position, windowTooSmall
+                    ? (int) Math.min(Integer.MAX_VALUE, window.limit() * 2L)
+                    : windowSize);
+        }
+    }
+
+    private void mapWindow(long start, int size) throws IOException {
+        final long length = Math.min(size, fileSize - start);
+        window = channel.map(FileChannel.MapMode.READ_ONLY, start, length);
+        windowStart = start;
+        position = 0;
+    }
+
+    /**
+     * parses the record at the current position, returns false
+     * if the window ends before the record does (and the file
+     * does not end there)
+     */
+    private boolean parseRecord() {
+        final ByteBuffer buffer = window;
+        final int limit = buffer.limit();
+        final boolean lastWindow = windowStart + limit >= fileSize;
+        int i = position;
+        fieldCount = 0;
+        while (true) {
+            final int fieldStart = i;
+            boolean quoted = false;
+            if (quote != NO_QUOTE && i < limit && buffer.get(i) == quote) {
+                quoted = true;
+                i++;
+                while (true) {
+                    if (i >= limit) {
+                        if (!lastWindow) {
+                            return false;
+                        }
+                        break;
+                    }
+                    if (buffer.get(i) == quote) {
+                        if (i + 1 < limit && buffer.get(i + 1) == quote) {
+                            i += 2;
+                            continue;
+                        }
+                        if (i + 1 >= limit && !lastWindow) {
+                            return false;
+                        }
+                        i++;
+                        break;
+                    }
+                    i++;
+                }
+            }
+            while (i < limit) {
+                final byte b = buffer.get(i);
+                if (b == delimiter || b == LF || b == CR) {
+                    break;
+                }
+                i++;
+            }
+            if (i >= limit && !lastWindow) {
+                return false;
+            }
+            addField(quoted ? fieldStart + 1 : fieldStart,
+                    quoted ? Math.max(fieldStart + 1, lastQuote(buffer, fieldStart + 1, i)) : i, quoted);
+            if (i < limit && buffer.get(i) == delimiter) {
+                i++;
+                continue;
+            }
+            // end of the record
+            if (i < limit && buffer.get(i) == CR) {
+                i++;
+                if (i >= limit && !lastWindow) {
+                    return false;
+                }
+            }
+            if (i < limit && buffer.get(i) == LF) {
+                i++;
+            }
+            position = i;
+            return true;
+        }
+    }
+
+    /**
+     * returns the position of the closing quote of a quoted field
+     */
+    private int lastQuote(ByteBuffer buffer, int from, int end) {
+        for (int i = end - 1; i >= from; --i) {
+            if (buffer.get(i) == quote) {
+                return i;
+            }
+        }
+        return end;
+    }
+
+    private void addField(int start, int end, boolean quoted) {
+        if (fieldCount == fieldStarts.length) {
+            fieldStarts = Arrays.copyOf(fieldStarts, fieldCount * 2);
+            fieldEnds = Arrays.copyOf(fieldEnds, fieldCount * 2);
+            fieldQuoted = Arrays.copyOf(fieldQuoted, fieldCount * 2);
+        }
+        fieldStarts[fieldCount] = start;
+        fieldEnds[fieldCount] = end;
+        fieldQuoted[fieldCount] = quoted;
+        fieldCount++;
+    }
+
+    @Override
+    public void close() throws IOException {
+        window = null;
+        channel.close();
+    }
+
+    /**
+     * a field of a record that is decoded when its text is needed, the
+     * window is not referenced anymore afterwards
+     */
+    private static final class CsvField implements CharSequence {
+        private ByteBuffer buffer;
+        private final int start;
+        private final int end;
+        // the quote if doubled quotes need to be unescaped, 0 otherwise
+        private final byte quote;
+        private final Charset charset;
+        private String text = null;
+
+        CsvField(ByteBuffer buffer, int start, int end, byte quote, Charset charset) {
+            this.buffer = buffer;
+            this.start = start;
+            this.end = end;
+            this.quote = quote;
+            this.charset = charset;
+        }
+
+        @Override
+        public int length() {
+            return toString().length();
+        }
+
+        @Override
+        public char charAt(int index) {
+            return toString().charAt(index);
+        }
+
+        @Override
+        public CharSequence subSequence(int start, int end) {
+            return toString().subSequence(start, end);
+        }
+
+        @Override
+        public String toString() {
+            if (text == null) {
+                final byte[] bytes = new byte[end - start];
+                int length = 0;
+                for (int i = start; i < end; ++i) {
+                    final byte b = buffer.get(i);
+                    bytes[length++] = b;
+                    if (b == quote && quote != 0 && i + 1 < end && buffer.get(i + 1) == quote) {
+                        i++;
+                    }
+                }
+                text = new String(bytes, 0, length, charset);
+                buffer = null;
+            }
+            return text;
+        }
+    }
+
+}
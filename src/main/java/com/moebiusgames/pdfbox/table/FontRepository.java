@@ -0,0 +1,145 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2019-2022 MobiusCode GmbH.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.moebiusgames.pdfbox.table;
+
+import java.io.IOException;
+import java.lang.ref.WeakReference;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentHashMap;
+import org.apache.fontbox.ttf.TTFParser;
+import org.apache.fontbox.ttf.TrueTypeFont;
+import org.apache.pdfbox.io.RandomAccessReadMemoryMappedFile;
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.pdmodel.font.PDType0Font;
+
+/**
+ * A process wide repository of TrueType fonts. Each font file is memory
+ * mapped and parsed just once, the parsed tables are then shared by all
+ * documents and threads. Per document a single subset embedding
+ * {@link PDType0Font} is created from the shared font, which is cheap as
+ * nothing needs to be parsed again.
+ *
+ * The fonts are kept open for the lifetime of the repository. The fonts of
+ * a document are only weakly referenced, as they reference their document
+ * (the document keeps them until they are subset on save).
+ */
+public final class FontRepository {
+
+    private static final FontRepository SHARED = new FontRepository();
+
+    private final Map<Path, SharedFont> fonts = new ConcurrentHashMap<>();
+    private final Map<PDDocument, Map<Path, WeakReference<PDType0Font>>> documentFonts = new WeakHashMap<>();
+
+    /**
+     * returns the repository that is used by
+     * {@link PDFTableColumn#setFont(PDDocument, Path)} and
+     * {@link PDFTableCell#setFont(PDDocument, Path)}
+     *
+     * @return the shared repository
+     */
+    public static FontRepository getShared() {
+        return SHARED;
+    }
+
+    /**
+     * returns the parsed font of the given file, the file is
+     * parsed on first use only. Don't close the returned font.
+     *
+     * @param fontFile the TrueType font file
+     * @return the shared font
+     * @throws IOException
+     */
+    public TrueTypeFont getTrueTypeFont(Path fontFile) throws IOException {
+        return fonts.computeIfAbsent(normalize(fontFile), SharedFont::new).get();
+    }
+
+    /**
+     * returns the font of the given file for the given document, which is
+     * embedded as subset. Calling this again for the same document returns
+     * the same instance as long as it is in use.
+     *
+     * @param document the document to use the font in
+     * @param fontFile the TrueType font file
+     * @return the font
+     * @throws IOException
+     */
+    public PDType0Font getFont(PDDocument document, Path fontFile) throws IOException {
+        if (document == null) {
+            throw new IllegalArgumentException("null is not allowed");
+        }
+        final Path path = normalize(fontFile);
+        final TrueTypeFont trueTypeFont = getTrueTypeFont(path);
+        synchronized (documentFonts) {
+            final Map<Path, WeakReference<PDType0Font>> fontsOfDocument
+                    = documentFonts.computeIfAbsent(document, d -> new HashMap<>());
+            final WeakReference<PDType0Font> reference = fontsOfDocument.get(path);
+            PDType0Font font = reference == null ? null : reference.get();
+            if (font == null) {
+                // cheap, the font is already parsed
+                font = PDType0Font.load(document, trueTypeFont, true);
+                fontsOfDocument.put(path, new WeakReference<>(font));
+            }
+            return font;
+        }
+    }
+
+    /**
+     * returns the amount of parsed fonts
+     *
+     * @return the font count
+     */
+    public int size() {
+        return fonts.size();
+    }
+
+    private static Path normalize(Path fontFile) {
+        if (fontFile == null) {
+            throw new IllegalArgumentException("null is not allowed");
+        }
+        return fontFile.toAbsolutePath().normalize();
+    }
+
+    /**
+     * a font file that is parsed once on first access
+     */
+    private static final class SharedFont {
+        private final Path path;
+        private TrueTypeFont font;
+
+        SharedFont(Path path) {
+            this.path = path;
+        }
+
+        synchronized TrueTypeFont get() throws IOException {
+            if (font == null) {
+                font = new TTFParser().parse(new RandomAccessReadMemoryMappedFile(path));
+            }
+            return font;
+        }
+    }
+
+}
@@ -0,0 +1,81 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2019-2022 MobiusCode GmbH.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.moebiusgames.pdfbox.table;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * A size bounded LRU cache of the texts of values formatted by a pure
+ * {@link ValueFormatter}. Cells with equal values share the same text
+ * instance, so it is formatted and stored only once. The cache is thread
+ * safe as columns (and their caches) are shared by tables created from
+ * the same template. Char sequences are cached (and formatted) as strings,
+ * as they don't need to implement equals and hashCode.
+ */
+final class FormattedValueCache {
+
+    static final int DEFAULT_MAX_SIZE = 4096;
+
+    private final ValueFormatter formatter;
+    private final Map<Object, String> entries;
+
+    FormattedValueCache(ValueFormatter formatter, int maxSize) {
+        this.formatter = formatter;
+        this.entries = new LinkedHashMap<Object, String>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Object, String> eldest) {
+                return size() > maxSize;
+            }
+        };
+    }
+
+    ValueFormatter getFormatter() {
+        return formatter;
+    }
+
+    String format(Object value) {
+        if (value instanceof CharSequence && !(value instanceof String)) {
+            value = value.toString();
+        }
+        synchronized (this) {
+            final String text = entries.get(value);
+            if (text != null) {
+                return text;
+            }
+        }
+
+        //format outside of the lock so that other threads are not blocked
+        final String text = formatter.format(value);
+        synchronized (this) {
+            entries.put(value, text);
+        }
+        return text;
+    }
+
+    synchronized int size() {
+        return entries.size();
+    }
+
+}
@@ -0,0 +1,193 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2019-2022 MobiusCode GmbH.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.moebiusgames.pdfbox.table;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import org.apache.fontbox.ttf.CmapLookup;
+import org.apache.fontbox.ttf.TrueTypeFont;
+import org.apache.pdfbox.pdmodel.font.PDCIDFontType2;
+import org.apache.pdfbox.pdmodel.font.PDFont;
+import org.apache.pdfbox.pdmodel.font.PDSimpleFont;
+import org.apache.pdfbox.pdmodel.font.PDType0Font;
+
+/**
+ * A table of the advance widths of the chars of a font. Looking up a width
+ * is just an array access, so strings can be measured without encoding them
+ * and from several threads at once: the font itself (whose width cache is not
+ * thread safe) is only asked for chars that were not looked up before.
+ * The same is done for the information if the font can render a char.
+ *
+ * The tables are cached per font, but they don't reference the font: an
+ * embedded font references its document, which must not be kept alive by
+ * the cache. An instance just binds the cached tables to the font for
+ * measuring, so it must not be kept either.
+ */
+final class GlyphWidths {
+
+    private static final Map<PDFont, Tables> TABLES = Collections.synchronizedMap(new WeakHashMap<>());
+    private static final int PAGE_SIZE = 256;
+    private static final byte UNKNOWN = 0;
+    private static final byte RENDERABLE = 1;
+    private static final byte NOT_RENDERABLE = 2;
+
+    private final PDFont font;
+    private final Tables tables;
+
+    private GlyphWidths(PDFont font, Tables tables) {
+        this.font = font;
+        this.tables = tables;
+    }
+
+    static GlyphWidths of(PDFont font) {
+        return new GlyphWidths(font, TABLES.computeIfAbsent(font, f -> new Tables()));
+    }
+
+    /**
+     * returns the width of the text with the given font size
+     */
+    float getWidth(String text, float fontSize) {
+        float width = 0;
+        for (int i = 0; i < text.length(); ++i) {
+            width += getWidth(text.charAt(i));
+        }
+        return width * fontSize / 1000;
+    }
+
+    /**
+     * returns the width of the char in 1/1000 text space units
+     */
+    float getWidth(char c) {
+        final float[] page = tables.pages.get(c / PAGE_SIZE);
+        if (page != null) {
+            final float width = page[c % PAGE_SIZE];
+            if (!Float.isNaN(width)) {
+                return width;
+            }
+        }
+        return tables.lookup(font, c);
+    }
+
+    /**
+     * returns true if the font can render the char, rendering
+     * any other char would throw an exception
+     */
+    boolean isRenderable(char c) {
+        final byte[] page = tables.renderablePages.get(c / PAGE_SIZE);
+        if (page != null) {
+            final byte renderable = page[c % PAGE_SIZE];
+            if (renderable != UNKNOWN) {
+                return renderable == RENDERABLE;
+            }
+        }
+        return tables.lookupRenderable(font, c);
+    }
+
+    private static CmapLookup getUnicodeCmap(PDType0Font font) {
+        if (font.getDescendantFont() instanceof PDCIDFontType2) {
+            final TrueTypeFont trueTypeFont = ((PDCIDFontType2) font.getDescendantFont()).getTrueTypeFont();
+            try {
+                return trueTypeFont == null ? null : trueTypeFont.getUnicodeCmapLookup(false);
+            } catch (IOException e) {
+                return null;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * the cached tables of a font, the font is passed in
+     * for the lookups of chars that are not known yet
+     */
+    private static final class Tables {
+        // pages are published fully initialized, a width that is read
+        // before it is visible is just looked up again
+        private final AtomicReferenceArray<float[]> pages
+                = new AtomicReferenceArray<>(Character.MAX_VALUE / PAGE_SIZE + 1);
+        private final AtomicReferenceArray<byte[]> renderablePages
+                = new AtomicReferenceArray<>(Character.MAX_VALUE / PAGE_SIZE + 1);
+        private CmapLookup cmap = null;
+        private boolean cmapLoaded = false;
+
+        synchronized boolean lookupRenderable(PDFont font, char c) {
+            byte[] page = renderablePages.get(c / PAGE_SIZE);
+            if (page == null) {
+                page = new byte[PAGE_SIZE];
+                renderablePages.set(c / PAGE_SIZE, page);
+            }
+            if (page[c % PAGE_SIZE] == UNKNOWN) {
+                page[c % PAGE_SIZE] = checkRenderable(font, c) ? RENDERABLE : NOT_RENDERABLE;
+            }
+            return page[c % PAGE_SIZE] == RENDERABLE;
+        }
+
+        private boolean checkRenderable(PDFont font, char c) {
+            //PDSimpleFonts can only render the chars of their encoding and
+            //PDType0Fonts backed by a TrueType font only the chars of its
+            //cmap, both throw an exception when rendering any other char
+            if (font instanceof PDSimpleFont) {
+                final PDSimpleFont simpleFont = (PDSimpleFont) font;
+                final String name = simpleFont.getGlyphList().codePointToName(c);
+                return simpleFont.getEncoding().contains(name);
+            }
+            if (font instanceof PDType0Font) {
+                if (!cmapLoaded) {
+                    cmap = getUnicodeCmap((PDType0Font) font);
+                    cmapLoaded = true;
+                }
+                //chars outside of the BMP are dropped as PDFBox maps
+                //surrogates one by one when applying GSUB rules
+                return cmap == null
+                        || Character.isWhitespace(c)
+                        || (!Character.isSurrogate(c) && cmap.getGlyphId(c) != 0);
+            }
+            return true;
+        }
+
+        synchronized float lookup(PDFont font, char c) {
+            float[] page = pages.get(c / PAGE_SIZE);
+            if (page == null) {
+                page = new float[PAGE_SIZE];
+                Arrays.fill(page, Float.NaN);
+                pages.set(c / PAGE_SIZE, page);
+            }
+            float width = page[c % PAGE_SIZE];
+            if (Float.isNaN(width)) {
+                try {
+                    width = font.getStringWidth(String.valueOf(c));
+                } catch (IOException | IllegalArgumentException e) {
+                    // not supported by the font, the char is filtered out anyway
+                    width = 0;
+                }
+                page[c % PAGE_SIZE] = width;
+            }
+            return width;
+        }
+    }
+
+}
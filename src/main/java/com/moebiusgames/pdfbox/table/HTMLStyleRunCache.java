@@ -0,0 +1,166 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2019-2022 MobiusCode GmbH.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.moebiusgames.pdfbox.table;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * A size bounded LRU cache that maps the HTML source of cells to its
+ * parsed style runs. As the style runs neither depend on the cell width
+ * nor on the font, cells with the same HTML content only need to be parsed
+ * once - the line breaking is still done per cell.
+ *
+ * The cache is thread safe and does not hold any references to documents,
+ * so one instance can be shared across documents and threads. By default
+ * all cells use the {@link #getShared() shared instance}.
+ */
+public final class HTMLStyleRunCache {
+
+    public static final int DEFAULT_MAX_SIZE = 1024;
+
+    private static final HTMLStyleRunCache SHARED = new HTMLStyleRunCache(DEFAULT_MAX_SIZE);
+
+    private final Map<String, HTMLStyleRuns> entries = new LinkedHashMap<String, HTMLStyleRuns>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, HTMLStyleRuns> eldest) {
+            if (size() > maxSize) {
+                evictionCount++;
+                return true;
+            }
+            return false;
+        }
+    };
+
+    private int maxSize;
+    private long hitCount;
+    private long missCount;
+    private long evictionCount;
+
+    /**
+     * creates a new cache
+     *
+     * @param maxSize the max amount of HTML sources to keep, 0 disables caching
+     */
+    public HTMLStyleRunCache(int maxSize) {
+        setMaxSize(maxSize);
+    }
+
+    /**
+     * returns the cache instance that is used by all cells
+     *
+     * @return the shared cache
+     */
+    public static HTMLStyleRunCache getShared() {
+        return SHARED;
+    }
+
+    /**
+     * returns the parsed style runs of the given HTML source and parses
+     * them if they are not cached yet
+     *
+     * @param html the HTML source
+     * @return the style runs
+     */
+    HTMLStyleRuns get(String html) {
+        synchronized (this) {
+            final HTMLStyleRuns runs = entries.get(html);
+            if (runs != null) {
+                hitCount++;
+                return runs;
+            }
+            missCount++;
+        }
+
+        //parse outside of the lock so that other threads are not blocked
+        final HTMLStyleRuns runs = HTMLStyleRuns.parse(html);
+        synchronized (this) {
+            if (maxSize > 0) {
+                entries.put(html, runs);
+            }
+        }
+        return runs;
+    }
+
+    public synchronized int getMaxSize() {
+        return maxSize;
+    }
+
+    /**
+     * sets the max amount of cached HTML sources. Least recently used
+     * entries are evicted if the cache currently holds more entries.
+     *
+     * @param maxSize the max size, 0 disables caching
+     */
+    public synchronized void setMaxSize(int maxSize) {
+        if (maxSize < 0) {
+            throw new IllegalArgumentException("max size must not be negative");
+        }
+        this.maxSize = maxSize;
+        final Iterator<String> iterator = entries.keySet().iterator();
+        while (entries.size() > maxSize && iterator.hasNext()) {
+            iterator.next();
+            iterator.remove();
+            evictionCount++;
+        }
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    public synchronized long getHitCount() {
+        return hitCount;
+    }
+
+    public synchronized long getMissCount() {
+        return missCount;
+    }
+
+    public synchronized long getEvictionCount() {
+        return evictionCount;
+    }
+
+    /**
+     * returns the ratio of lookups that could be served from the cache
+     *
+     * @return the hit rate between 0 and 1
+     */
+    public synchronized double getHitRate() {
+        final long total = hitCount + missCount;
+        return total == 0 ? 0 : (double) hitCount / total;
+    }
+
+    /**
+     * removes all entries and resets the statistics
+     */
+    public synchronized void clear() {
+        entries.clear();
+        hitCount = 0;
+        missCount = 0;
+        evictionCount = 0;
+    }
+
+}
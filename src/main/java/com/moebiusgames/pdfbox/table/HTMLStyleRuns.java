@@ -0,0 +1,235 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2019-2022 MobiusCode GmbH.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.moebiusgames.pdfbox.table;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import org.jsoup.Jsoup;
+import org.jsoup.nodes.Document;
+import org.jsoup.nodes.Node;
+
+/**
+ * the parsed form of an HTML cell content: a flat sequence of
+ * styled text runs and line break instructions. This sequence
+ * does neither depend on the width of the cell nor on its font, so
+ * it can be shared between all cells that have the same HTML source
+ * (see {@link HTMLStyleRunCache}). The actual line breaking is done
+ * per cell when the runs are laid out.
+ *
+ * Instances are immutable.
+ */
+final class HTMLStyleRuns {
+
+    private final List<Run> runs;
+
+    private HTMLStyleRuns(List<Run> runs) {
+        this.runs = Collections.unmodifiableList(runs);
+    }
+
+    List<Run> getRuns() {
+        return runs;
+    }
+
+    /**
+     * parses the given HTML source into its style runs
+     *
+     * @param html the HTML source
+     * @return the parsed style runs
+     */
+    static HTMLStyleRuns parse(String html) {
+        final Document document = Jsoup.parse(html);
+        final List<Run> runs = new ArrayList<>();
+        traverse(runs, new LayoutFrame(), null, document.body());
+        return new HTMLStyleRuns(runs);
+    }
+
+    private static void traverse(List<Run> runs, LayoutFrame inFrame,
+            Node predecessorNode, Node node) {
+        LayoutFrame frame = new LayoutFrame(inFrame);
+
+        if (predecessorNode != null) {
+            switch (predecessorNode.nodeName().toLowerCase()) {
+                case "ul":
+                case "blockquote":
+                    //only add new line when this is
+                    //after <ul> but also not still within
+                    //another <ul> tag! This results in
+                    //a new line after the last </ul>
+                    if (frame.indent == 0) {
+                        runs.add(new Run(Kind.NEW_LINES, null, null, 1));
+                    }
+                    break;
+            }
+        }
+
+        switch (node.nodeName().toLowerCase()) {
+            case "div":
+            case "p":
+                runs.add(new Run(Kind.CONDITIONAL_NEW_LINES, null, null, 1));
+                break;
+            case "br":
+                runs.add(new Run(Kind.LINE_BREAK, frame, null, 0));
+                break;
+            case "blockquote":
+                //add newline in front of blockquote
+                //if there is not already one
+                if (frame.indent == 0) {
+                    runs.add(new Run(Kind.CONDITIONAL_NEW_LINES, null, null, 2));
+                }
+                frame.indent++;
+                break;
+            case "b":
+            case "strong":
+                frame.bold = true;
+                break;
+            case "i":
+                frame.italic = true;
+                break;
+            case "u":
+                frame.underline = true;
+                break;
+            case "font":
+                if (node.hasAttr("size")) {
+                    try {
+                        frame.htmlSize = Integer.valueOf(node.attr("size"));
+                        frame.fontSize = null;
+                    } catch (NumberFormatException e) {
+                        //ignore for now
+                    }
+                }
+                if (node.hasAttr("color")) {
+                    frame.color = Utils.htmlColorToColor(node.attr("color"));
+                }
+                break;
+            case "span":
+                if (node.hasAttr("style")) {
+                    InlineStyle.parse(node.attr("style")).applyTo(frame);
+                }
+                break;
+            case "ul":
+                //if this is the first <ul>, we add an empty line
+                runs.add(new Run(Kind.CONDITIONAL_NEW_LINES, null, null, frame.indent == 0 ? 2 : 1));
+                frame.indent++;
+                break;
+            case "li":
+                frame.bulletPoint = true;
+                runs.add(new Run(Kind.CONDITIONAL_NEW_LINES, null, null, 1));
+                break;
+        }
+        if (node.nodeName().equals("#text")) {
+            runs.add(new Run(Kind.TEXT, frame, htmlToText(node.outerHtml()), 0));
+        }
+
+        //need to use the nodes copy here as (for some reason) the "normal" child's first
+        //#text node contains a newline character in front of it.
+        final List<Node> childNodes = node.childNodesCopy();
+        for (int i = 0; i < childNodes.size(); ++i) {
+            final Node aNode = childNodes.get(i);
+            final Node aPredecessorNode = i > 0 ? childNodes.get(i - 1) : null;
+            traverse(runs, frame, aPredecessorNode, aNode);
+        }
+    }
+
+    /**
+     * decodes all special entities from html to plain text
+     * and also does not trim the text
+     *
+     * @param html the html
+     * @return returns decoded html
+     */
+    private static String htmlToText(String html) {
+        StringBuilder sb = new StringBuilder();
+        sb.append(Jsoup.parse(html).text());
+
+        //add possibly removed " " from both sides
+        if (!html.isEmpty()) {
+            for (int i = 0; i < html.length() && html.charAt(i) == ' '; ++i) {
+                sb.insert(0, ' ');
+            }
+            for (int i = html.length() - 1; i >= 0 && html.charAt(i) == ' '; --i) {
+                sb.append(' ');
+            }
+        }
+        return sb.toString();
+    }
+
+    enum Kind {
+        /**
+         * unconditionally adds new lines in front of the next content
+         */
+        NEW_LINES,
+        /**
+         * makes sure that there are at least the given amount
+         * of (empty) lines in front of the next content
+         */
+        CONDITIONAL_NEW_LINES,
+        /**
+         * a hard line break (&lt;br&gt;)
+         */
+        LINE_BREAK,
+        /**
+         * styled text that still needs to be broken into lines
+         */
+        TEXT
+    }
+
+    static final class Run {
+        private final Kind kind;
+        private final LayoutFrame frame;
+        private final String text;
+        private final int amount;
+
+        private Run(Kind kind, LayoutFrame frame, String text, int amount) {
+            this.kind = kind;
+            //copy the frame as the traversal keeps on modifying it
+            this.frame = frame == null ? null : new LayoutFrame(frame);
+            this.text = text;
+            this.amount = amount;
+        }
+
+        Kind getKind() {
+            return kind;
+        }
+
+        /**
+         * returns a fresh copy of the style of this run, as the layout
+         * modifies the frame while consuming it
+         *
+         * @return a copy of the frame
+         */
+        LayoutFrame copyFrame() {
+            return new LayoutFrame(frame);
+        }
+
+        String getText() {
+            return text;
+        }
+
+        int getAmount() {
+            return amount;
+        }
+    }
+
+}
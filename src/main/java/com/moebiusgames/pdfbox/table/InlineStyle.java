@@ -0,0 +1,172 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2019-2022 MobiusCode GmbH.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.moebiusgames.pdfbox.table;
+
+import java.awt.Color;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * The parsed form of an inline CSS style attribute (<code>style="..."</code>).
+ * Only the properties that can be rendered in a cell are supported:
+ * color, background-color, font-weight, font-style, font-size and
+ * text-decoration. All other declarations are ignored.
+ *
+ * The most recently used style attributes are kept in an LRU cache with
+ * their parsed declarations, so parsing them again does not allocate
+ * anything.
+ */
+final class InlineStyle {
+
+    private static final Pattern DECLARATION_PATTERN = Pattern.compile("\\s*([a-zA-Z-]+)\\s*:\\s*([^;]*?)\\s*(?:;|$)");
+    private static final Pattern FONT_SIZE_PATTERN = Pattern.compile("([0-9]+(?:\\.[0-9]+)?)(pt|px)?");
+    private static final int MAX_CACHED_STYLES = 1024;
+    // LRU, guarded by itself
+    private static final Map<String, InlineStyle> STYLE_CACHE = new LinkedHashMap<String, InlineStyle>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, InlineStyle> eldest) {
+            return size() > MAX_CACHED_STYLES;
+        }
+    };
+
+    private Color color = null;
+    private Color backgroundColor = null;
+    private Boolean bold = null;
+    private Boolean italic = null;
+    private Integer fontSize = null;
+    private Boolean underline = null;
+
+    private InlineStyle() {
+    }
+
+    /**
+     * parses the given style attribute value
+     *
+     * @param style the value of the style attribute
+     * @return the parsed (and possibly cached) style
+     */
+    static InlineStyle parse(String style) {
+        synchronized (STYLE_CACHE) {
+            final InlineStyle result = STYLE_CACHE.get(style);
+            if (result != null) {
+                return result;
+            }
+        }
+
+        //parse outside of the lock so that other threads are not blocked
+        final InlineStyle result = parseDeclarations(style);
+        synchronized (STYLE_CACHE) {
+            STYLE_CACHE.put(style, result);
+        }
+        return result;
+    }
+
+    private static InlineStyle parseDeclarations(String style) {
+        final InlineStyle result = new InlineStyle();
+        final Matcher matcher = DECLARATION_PATTERN.matcher(style);
+        while (matcher.find()) {
+            final String value = matcher.group(2).toLowerCase();
+            switch (matcher.group(1).toLowerCase()) {
+                case "color":
+                    result.color = Utils.htmlColorToColor(value);
+                    break;
+                case "background-color":
+                    result.backgroundColor = Utils.htmlColorToColor(value);
+                    break;
+                case "font-weight":
+                    result.bold = parseBold(value);
+                    break;
+                case "font-style":
+                    result.italic = value.equals("italic") || value.equals("oblique");
+                    break;
+                case "font-size":
+                    result.fontSize = parseFontSize(value);
+                    break;
+                case "text-decoration":
+                    result.underline = value.contains("underline");
+                    break;
+            }
+        }
+        return result;
+    }
+
+    private static Boolean parseBold(String value) {
+        switch (value) {
+            case "bold":
+            case "bolder":
+                return true;
+            case "normal":
+            case "lighter":
+                return false;
+        }
+        try {
+            return Integer.parseInt(value) >= 600;
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    private static Integer parseFontSize(String value) {
+        final Matcher matcher = FONT_SIZE_PATTERN.matcher(value);
+        if (!matcher.matches()) {
+            return null;
+        }
+        float size = Float.parseFloat(matcher.group(1));
+        if ("px".equals(matcher.group(2))) {
+            //1px is 1/96 inch, 1pt is 1/72 inch
+            size *= 72f / 96f;
+        }
+        return Math.max(1, Math.round(size));
+    }
+
+    /**
+     * applies all declared properties to the given frame
+     *
+     * @param frame the frame to modify
+     */
+    void applyTo(LayoutFrame frame) {
+        if (color != null) {
+            frame.color = color;
+        }
+        if (backgroundColor != null) {
+            frame.backgroundColor = backgroundColor;
+        }
+        if (bold != null) {
+            frame.bold = bold;
+        }
+        if (italic != null) {
+            frame.italic = italic;
+        }
+        if (fontSize != null) {
+            frame.fontSize = fontSize;
+            frame.htmlSize = null;
+        }
+        if (underline != null) {
+            frame.underline = underline;
+        }
+    }
+
+}
@@ -0,0 +1,370 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2019-2022 MobiusCode GmbH.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.moebiusgames.pdfbox.table;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.pdmodel.PDPageContentStream;
+import org.apache.pdfbox.pdmodel.common.PDRectangle;
+import org.apache.pdfbox.pdmodel.interactive.annotation.PDAppearanceStream;
+
+/**
+ * Lays out labels on sheets, like shipping or address labels: every page
+ * is divided into a grid of equally sized labels (separated by gutters) that
+ * is filled row by row, adding pages as needed.
+ *
+ * Every label consists of static parts, which are the same on all labels,
+ * and fields that are filled from a {@link RowSource}: each field is a
+ * column of a table and each label is one row. The static parts are
+ * recorded once per document as a form xobject that is just referenced
+ * by every label. The fields of a page are laid out in parallel on the
+ * executor of the render context before they are rendered. Fields are
+ * never split, text that exceeds a label is not clipped.
+ *
+ * All positions within a label are relative to its top left corner,
+ * y grows downwards.
+ */
+public class LabelSheet {
+
+    private final PDRectangle pageSize;
+    private final int columns;
+    private final int rows;
+    private final PDFTable fields = new PDFTable();
+    private final PDFTableBorder noBorder = new PDFTableBorder();
+    private final List<Placement> fieldPlacements = new ArrayList<>();
+    private final List<Placement> staticPlacements = new ArrayList<>();
+
+    private float marginLeft = 0;
+    private float marginRight = 0;
+    private float marginTop = 0;
+    private float marginBottom = 0;
+    private float horizontalGutter = 0;
+    private float verticalGutter = 0;
+    private int firstSlot = 0;
+
+    // the static parts are recorded once per document
+    private PDDocument staticFormDocument = null;
+    private PDAppearanceStream staticForm = null;
+
+    /**
+     * creates a sheet
+     *
+     * @param pageSize the size of the pages
+     * @param columns amount of labels per row
+     * @param rows amount of label rows per page
+     */
+    public LabelSheet(PDRectangle pageSize, int columns, int rows) {
+        if (pageSize == null) {
+            throw new IllegalArgumentException("null is not allowed");
+        }
+        if (columns < 1 || rows < 1) {
+            throw new IllegalArgumentException("a sheet needs at least one label");
+        }
+        this.pageSize = pageSize;
+        this.columns = columns;
+        this.rows = rows;
+        this.noBorder.setLineWidth(0);
+        this.fields.setColumnHeadersMode(PDFTable.ColumnHeadersMode.NO_COLUMN_HEADERS);
+    }
+
+    public PDRectangle getPageSize() {
+        return pageSize;
+    }
+
+    public int getColumns() {
+        return columns;
+    }
+
+    public int getRows() {
+        return rows;
+    }
+
+    /**
+     * sets the space between the edges of the page and the labels
+     *
+     * @param left left margin
+     * @param right right margin
+     * @param top top margin
+     * @param bottom bottom margin
+     * @return this
+     */
+    public LabelSheet setMargins(float left, float right, float top, float bottom) {
+        if (left < 0 || right < 0 || top < 0 || bottom < 0) {
+            throw new IllegalArgumentException("margins must not be negative");
+        }
+        this.marginLeft = left;
+        this.marginRight = right;
+        this.marginTop = top;
+        this.marginBottom = bottom;
+        return this;
+    }
+
+    /**
+     * sets the space between neighboring labels
+     *
+     * @param horizontal space between the columns of labels
+     * @param vertical space between the rows of labels
+     * @return this
+     */
+    public LabelSheet setGutters(float horizontal, float vertical) {
+        if (horizontal < 0 || vertical < 0) {
+            throw new IllegalArgumentException("gutters must not be negative");
+        }
+        this.horizontalGutter = horizontal;
+        this.verticalGutter = vertical;
+        return this;
+    }
+
+    public int getFirstSlot() {
+        return firstSlot;
+    }
+
+    /**
+     * sets the first label on the first page that is used,
+     * so partially used sheets can be printed again
+     *
+     * @param firstSlot the index of the label, counted row by row
+     * @return this
+     */
+    public LabelSheet setFirstSlot(int firstSlot) {
+        if (firstSlot < 0 || firstSlot >= getLabelsPerPage()) {
+            throw new IllegalArgumentException("slot is out of range");
+        }
+        this.firstSlot = firstSlot;
+        return this;
+    }
+
+    public int getLabelsPerPage() {
+        return columns * rows;
+    }
+
+    public float getLabelWidth() {
+        return (pageSize.getWidth() - marginLeft - marginRight
+                - (columns - 1) * horizontalGutter) / columns;
+    }
+
+    public float getLabelHeight() {
+        return (pageSize.getHeight() - marginTop - marginBottom
+                - (rows - 1) * verticalGutter) / rows;
+    }
+
+    /**
+     * adds a part that is the same on all labels
+     *
+     * @param label the static part
+     * @param x x position within the label
+     * @param y y position within the label (from the top)
+     * @return this
+     */
+    public LabelSheet addStatic(PDFLabel label, float x, float y) {
+        if (label == null) {
+            throw new IllegalArgumentException("null is not allowed");
+        }
+        staticPlacements.add(new Placement(label, x, y));
+        staticForm = null;
+        staticFormDocument = null;
+        return this;
+    }
+
+    /**
+     * adds a static text without borders
+     *
+     * @param text the text
+     * @param x x position within the label
+     * @param y y position within the label (from the top)
+     * @param width width of the text
+     * @return the label to change the style of the text
+     */
+    public PDFLabel addStaticText(String text, float x, float y, float width) {
+        final PDFLabel label = new PDFLabel(width);
+        label.setText(text);
+        addStatic(label, x, y);
+        return label;
+    }
+
+    /**
+     * adds a field that is filled for every label. Fields can't be added
+     * anymore once the sheet was rendered.
+     *
+     * @param x x position within the label
+     * @param y y position within the label (from the top)
+     * @param width width of the field
+     * @return the column that defines the style of the field, its index
+     * is the index of the cell in the rows of the {@link RowSource}
+     */
+    public PDFTableColumn addField(float x, float y, float width) {
+        final PDFTableColumn column = fields.addColumn(width, noBorder);
+        fieldPlacements.add(new Placement(null, x, y));
+        return column;
+    }
+
+    public PDFTableColumn getField(int index) {
+        return fields.getColumn(index);
+    }
+
+    public int getFields() {
+        return fields.getColumns();
+    }
+
+    /**
+     * renders a label for every row of the source, starting on the
+     * last page of the render context (which is expected to have the page
+     * size of this sheet) at the first slot
+     *
+     * @param renderContext the render context
+     * @param source the source of the field values
+     * @return the result, the rendered y position is the bottom of the
+     * last row of labels
+     * @throws IOException
+     */
+    public RenderResult render(PDFRenderContext renderContext, RowSource source) throws IOException {
+        if (source == null) {
+            throw new IllegalArgumentException("null is not allowed");
+        }
+        final PDAppearanceStream form = getStaticForm(renderContext);
+        final RenderBudget budget = renderContext.getRenderBudget();
+        final float labelWidth = getLabelWidth();
+        final float labelHeight = getLabelHeight();
+
+        PDFPageWithStream page = renderContext.getLastPage();
+        int slot = firstSlot;
+        boolean hasMoreRows = true;
+        boolean firstPage = true;
+        while (hasMoreRows) {
+            hasMoreRows = fields.fillRows(source, getLabelsPerPage() - slot);
+            if (fields.getRows() == 0) {
+                break;
+            }
+            if (!firstPage) {
+                page = renderContext.addPageAfter(page);
+                page.getPage().setMediaBox(pageSize);
+            }
+            layoutFields(renderContext);
+
+            final PDPageContentStream stream = page.getOrCreateStream();
+            float bottom = page.getRenderedYPosition();
+            for (int i = 0; i < fields.getRows(); ++i, ++slot) {
+                if (budget != null) {
+                    budget.checkRow(renderContext);
+                }
+                final float x = marginLeft + (slot % columns) * (labelWidth + horizontalGutter);
+                final float top = pageSize.getHeight() - marginTop
+                        - (slot / columns) * (labelHeight + verticalGutter);
+                if (form != null) {
+                    Utils.drawForm(stream, form, x, top - labelHeight);
+                }
+                final PDFTableRow row = fields.getRow(i);
+                for (int f = 0; f < fieldPlacements.size(); ++f) {
+                    final PDFTableCell cell = row.getCell(f);
+                    final Placement placement = fieldPlacements.get(f);
+                    cell.render(stream, x + placement.x, top - placement.y, 0,
+                            cell.getLaidoutContent().getNumRows(), cell.getMinRequiredHeight(),
+                            true, renderContext, renderContext.getCellFormCache());
+                }
+                bottom = Math.min(bottom, top - labelHeight);
+                if (budget != null) {
+                    budget.rowRendered();
+                }
+            }
+            page.setRenderedYPosition(bottom);
+            slot = 0;
+            firstPage = false;
+        }
+        return new RenderResult(renderContext.getPageCount(), page,
+                page.getRenderedYPosition(), -1);
+    }
+
+    /**
+     * lays out the fields of all current rows in parallel chunks. Values
+     * are formatted on the calling thread before, as neither value
+     * formatters nor number formats have to be thread safe.
+     */
+    private void layoutFields(PDFRenderContext renderContext) {
+        final int rowCount = fields.getRows();
+        for (int i = 0; i < rowCount; ++i) {
+            for (PDFTableCell cell : fields.getRow(i).cells) {
+                cell.getContent();
+            }
+        }
+        final int chunks = Math.min(rowCount, Runtime.getRuntime().availableProcessors());
+        final CompletableFuture<?>[] futures = new CompletableFuture<?>[chunks];
+        for (int c = 0; c < chunks; ++c) {
+            final int from = c * rowCount / chunks;
+            final int to = (c + 1) * rowCount / chunks;
+            futures[c] = CompletableFuture.runAsync(() -> {
+                for (int i = from; i < to; ++i) {
+                    for (PDFTableCell cell : fields.getRow(i).cells) {
+                        cell.updateContentLayout();
+                    }
+                }
+            }, renderContext.getExecutor());
+        }
+        Utils.joinAll(futures);
+    }
+
+    /**
+     * returns the form of the static parts for the given document
+     * or null if there are no static parts
+     */
+    private PDAppearanceStream getStaticForm(PDFRenderContext renderContext) throws IOException {
+        final PDDocument document = renderContext.getDocument();
+        if (staticPlacements.isEmpty()) {
+            return null;
+        }
+        if (staticForm != null && staticFormDocument == document) {
+            return staticForm;
+        }
+        final float labelHeight = getLabelHeight();
+        final PDAppearanceStream form = Utils.createForm(document,
+                new PDRectangle(0, 0, getLabelWidth(), labelHeight));
+        try (PDPageContentStream formStream = Utils.openFormStream(document, form)) {
+            for (Placement placement : staticPlacements) {
+                final PDFTableCell cell = placement.label.getCell();
+                cell.updateContentLayout();
+                placement.label.renderCell(formStream, placement.x, labelHeight - placement.y,
+                        cell.getMinRequiredHeight(), renderContext, null);
+            }
+        }
+        this.staticForm = form;
+        this.staticFormDocument = document;
+        return form;
+    }
+
+    private static final class Placement {
+
+        private final PDFLabel label;
+        private final float x;
+        private final float y;
+
+        Placement(PDFLabel label, float x, float y) {
+            this.label = label;
+            this.x = x;
+            this.y = y;
+        }
+    }
+
+}
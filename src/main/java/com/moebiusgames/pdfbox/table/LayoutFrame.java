@@ -0,0 +1,59 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2019-2022 MobiusCode GmbH.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.moebiusgames.pdfbox.table;
+
+import java.awt.Color;
+
+/**
+ * the (inherited) text style that is active while laying out
+ * a part of an HTML cell
+ */
+final class LayoutFrame {
+
+    int indent = 0;
+    boolean bulletPoint = false;
+    Color color = null;
+    Integer htmlSize = null;
+    Integer fontSize = null;
+    Color backgroundColor = null;
+    Boolean bold = null;
+    Boolean italic = null;
+    Boolean underline = null;
+
+    LayoutFrame() {
+    }
+
+    LayoutFrame(LayoutFrame frame) {
+        this.indent = frame.indent;
+        this.bulletPoint = frame.bulletPoint;
+        this.color = frame.color;
+        this.htmlSize = frame.htmlSize;
+        this.fontSize = frame.fontSize;
+        this.backgroundColor = frame.backgroundColor;
+        this.bold = frame.bold;
+        this.italic = frame.italic;
+        this.underline = frame.underline;
+    }
+
+}
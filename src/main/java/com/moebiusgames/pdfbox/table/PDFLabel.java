@@ -24,7 +24,16 @@
 package com.moebiusgames.pdfbox.table;
 
 import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import org.apache.pdfbox.pdmodel.PDPageContentStream;
 
+/**
+ * A block of text. A label that fits on its page is laid out and rendered
+ * directly as a single cell; only labels that need to be split across
+ * pages go through the pagination of a table.
+ */
 public class PDFLabel {
 
     private final PDFTable table;
@@ -35,17 +44,11 @@ public class PDFLabel {
     }
 
     public PDFLabel(float width, TextType textType) {
-        this.table = new PDFTable(width);
-        this.table.setColumnHeadersMode(PDFTable.ColumnHeadersMode.NO_COLUMN_HEADERS);
-        row = this.table.addRow();
-
         final PDFTableBorder noBorder = new PDFTableBorder();
         noBorder.setLineWidth(0);
-        getCell().setBorderBottom(noBorder)
-            .setBorderTop(noBorder)
-            .setBorderLeft(noBorder)
-            .setBorderRight(noBorder)
-            .setTextType(textType);
+        this.table = PDFTable.createLabelTable(width, noBorder);
+        row = this.table.addRow();
+        getCell().setTextType(textType);
     }
 
     public void setText(String text) {
@@ -67,7 +70,8 @@ public class PDFLabel {
      */
     public void render(PDFRenderContext renderContext,
             float x) throws IOException {
-        this.table.render(renderContext, x);
+        render(renderContext, renderContext.getLastPage(), x,
+                renderContext.getLastPage().getRenderedYPosition());
     }
 
     /**
@@ -81,7 +85,7 @@ public class PDFLabel {
      */
     public void render(PDFRenderContext renderContext,
             float x, float y) throws IOException {
-        this.table.render(renderContext, x, y);
+        render(renderContext, renderContext.getLastPage(), x, y);
     }
 
     /**
@@ -95,7 +99,67 @@ public class PDFLabel {
      */
     public void render(PDFRenderContext renderContext, PDFPageWithStream page,
             float x, float y) throws IOException {
-        this.table.render(renderContext, page, x, y);
+        renderLabel(renderContext, page, x, y);
+    }
+
+    /**
+     * renders the label and returns the page it ended on
+     */
+    private PDFPageWithStream renderLabel(PDFRenderContext renderContext, PDFPageWithStream page,
+            float x, float y) throws IOException {
+        final PDFTableCell cell = getCell();
+        cell.updateContentLayout();
+        final float height = cell.getMinRequiredHeight();
+        if (Math.max(row.getMinHeight(), height) > y - table.getPageSettings().getMarginBottom()) {
+            // needs to be split or moved to the next page
+            return table.renderTable(renderContext, page, x, y);
+        }
+
+        final RenderBudget budget = renderContext.getRenderBudget();
+        if (budget != null) {
+            budget.checkRow(renderContext);
+        }
+        renderCell(page.getOrCreateStream(), x, y, height, renderContext, renderContext.getCellFormCache());
+        page.setRenderedYPosition(y - height);
+        if (budget != null) {
+            budget.rowRendered();
+        }
+        return page;
+    }
+
+    /**
+     * renders the laid out cell of this label as a whole at the given
+     * position, regardless of the page margins
+     */
+    void renderCell(PDPageContentStream stream, float x, float y, float height,
+            PDFRenderContext renderContext, CellFormCache formCache) throws IOException {
+        final PDFTableCell cell = getCell();
+        cell.render(stream, x, y, 0, cell.getLaidoutContent().getNumRows(), height, true,
+                renderContext, formCache);
+    }
+
+    /**
+     * renders the label asynchronously on the last page of the
+     * given render context
+     *
+     * @param renderContext the render context
+     * @param x x position to render the label at
+     * @param y y position to render the label at
+     * @param executor the executor to render on
+     * @return a future that completes when the label is rendered
+     */
+    public CompletableFuture<RenderResult> renderAsync(PDFRenderContext renderContext,
+            float x, float y, Executor executor) {
+        return CompletableFuture.supplyAsync(() -> {
+            try {
+                final PDFPageWithStream lastPage = renderLabel(renderContext,
+                        renderContext.getLastPage(), x, y);
+                return new RenderResult(renderContext.getPageCount(), lastPage,
+                        lastPage.getRenderedYPosition(), -1);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }, executor);
     }
 
 }
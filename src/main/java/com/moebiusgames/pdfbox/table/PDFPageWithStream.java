@@ -39,6 +39,10 @@ public class PDFPageWithStream {
     private final PDDocument doc;
     private final PDPage page;
     private PDPageContentStream stream;
+    private boolean closed = false;
+    private ContentCompression contentCompression = ContentCompression.DEFAULT;
+    private boolean deferCompression = false;
+    private ContentCompression pendingCompression = null;
 
     private float renderedYPosition;
 
@@ -67,11 +71,44 @@ public class PDFPageWithStream {
 
     public PDPageContentStream getOrCreateStream() throws IOException {
         if (this.stream == null) {
-            this.stream = new PDPageContentStream(doc, page, AppendMode.APPEND, true, true);
+            // the default level is applied by PDFBox directly, every other
+            // level is applied to the uncompressed stream once it is closed
+            final boolean compress = contentCompression == ContentCompression.DEFAULT && !deferCompression;
+            this.stream = new PDPageContentStream(doc, page, AppendMode.APPEND, compress, true);
+            if (!compress && contentCompression != ContentCompression.NONE) {
+                this.pendingCompression = contentCompression;
+            }
         }
         return this.stream;
     }
 
+    /**
+     * sets how the content stream is compressed, this only affects a
+     * stream that is not created yet. If deferred, the stream stays
+     * uncompressed when it is closed and is compressed by
+     * {@link PDFRenderContext#closeAllPages()}
+     */
+    void setContentCompression(ContentCompression contentCompression, boolean deferCompression) {
+        this.contentCompression = contentCompression;
+        this.deferCompression = deferCompression;
+    }
+
+    /**
+     * returns true if the closed content stream still waits
+     * for its deferred compression
+     */
+    boolean isCompressionDeferred() {
+        return closed && pendingCompression != null;
+    }
+
+    ContentCompression getPendingCompression() {
+        return pendingCompression;
+    }
+
+    void compressionDone() {
+        this.pendingCompression = null;
+    }
+
     /**
      * returns the position where the last render stopped
      * on this particular page
@@ -86,8 +123,13 @@ public class PDFPageWithStream {
     }
 
     public void close() throws IOException {
-        if (this.stream != null) {
+        if (this.stream != null && !this.closed) {
             this.stream.close();
+            this.closed = true;
+            if (pendingCompression != null && !deferCompression) {
+                ContentCompressor.compress(page, pendingCompression);
+                pendingCompression = null;
+            }
         }
     }
 
@@ -25,11 +25,28 @@
 package com.moebiusgames.pdfbox.table;
 
 import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import org.apache.pdfbox.cos.COSBase;
+import org.apache.pdfbox.cos.COSDictionary;
+import org.apache.pdfbox.cos.COSName;
+import org.apache.pdfbox.multipdf.PDFMergerUtility;
+import org.apache.pdfbox.pdfwriter.compress.CompressParameters;
 import org.apache.pdfbox.pdmodel.PDDocument;
 import org.apache.pdfbox.pdmodel.PDPage;
+import org.apache.pdfbox.pdmodel.PDResources;
+import org.apache.pdfbox.pdmodel.font.PDFont;
+import org.apache.pdfbox.pdmodel.font.PDType1Font;
+import org.apache.pdfbox.pdmodel.font.Standard14Fonts;
 
 /**
  * This context collects all pages and their open streams
@@ -38,12 +55,22 @@ public class PDFRenderContext {
 
     private final PDDocument document;
     private final List<PDFPageWithStream> pages = new ArrayList<>();
+    private CellFormCache cellFormCache = null;
+    private Executor executor = RenderExecutors.getDefault();
+    private RenderBudget renderBudget = null;
+    private ContentCompression contentCompression = ContentCompression.DEFAULT;
+    private boolean parallelCompression = false;
+    private CompressParameters outputMode = PDFUtils.COMPACT_OUTPUT;
+    // logical font (standard 14 name or the font itself) -> font of the document
+    private final Map<Object, PDFont> documentFonts = new HashMap<>();
+    private final Map<PDFont, COSName> fontResourceNames = new LinkedHashMap<>();
+    private PDResources sharedResources = null;
 
     public PDFRenderContext(PDDocument document, PDPage firstPage) {
         this.document = document;
 
         // Only add the first page to the document if it is not already present
-        this.pages.add(new PDFPageWithStream(document, firstPage));
+        this.pages.add(createPage(firstPage));
         boolean alreadyPresent = false;
         for (PDPage page : document.getPages()) {
             if (page.getCOSObject() == firstPage.getCOSObject()) {
@@ -83,6 +110,219 @@ public class PDFRenderContext {
         return document;
     }
 
+    public CellFormCache getCellFormCache() {
+        return cellFormCache;
+    }
+
+    /**
+     * enables placing identically rendered cells as shared form xobjects
+     * (see {@link CellFormCache}). The cache is bound to the document of
+     * this context, null disables it again.
+     *
+     * @param cellFormCache the cache or null
+     */
+    public void setCellFormCache(CellFormCache cellFormCache) {
+        if (cellFormCache != null) {
+            cellFormCache.bind(document);
+        }
+        this.cellFormCache = cellFormCache;
+    }
+
+    public RenderBudget getRenderBudget() {
+        return renderBudget;
+    }
+
+    /**
+     * sets the budget that limits all rendering into this context
+     * or null for no limits
+     *
+     * @param renderBudget the budget or null
+     */
+    public void setRenderBudget(RenderBudget renderBudget) {
+        this.renderBudget = renderBudget;
+    }
+
+    public ContentCompression getContentCompression() {
+        return contentCompression;
+    }
+
+    /**
+     * sets how the content streams of pages are compressed that
+     * are not yet rendered to. Defaults to
+     * {@link ContentCompression#DEFAULT}.
+     *
+     * @param contentCompression the compression
+     */
+    public void setContentCompression(ContentCompression contentCompression) {
+        if (contentCompression == null) {
+            throw new IllegalArgumentException("null is not allowed");
+        }
+        this.contentCompression = contentCompression;
+        updatePageCompression();
+    }
+
+    public boolean isParallelCompression() {
+        return parallelCompression;
+    }
+
+    /**
+     * if enabled, the content streams of pages that are not yet rendered
+     * to are written uncompressed first and then deflated in parallel on
+     * the executor of this context when {@link #closeAllPages()} is called
+     *
+     * @param parallelCompression true to deflate in parallel
+     */
+    public void setParallelCompression(boolean parallelCompression) {
+        this.parallelCompression = parallelCompression;
+        updatePageCompression();
+    }
+
+    public CompressParameters getOutputMode() {
+        return outputMode;
+    }
+
+    /**
+     * sets how the document is written when it is saved through this
+     * context, see {@link PDFUtils#CLASSIC_OUTPUT} and
+     * {@link PDFUtils#COMPACT_OUTPUT} (the default)
+     *
+     * @param outputMode the output mode
+     */
+    public void setOutputMode(CompressParameters outputMode) {
+        if (outputMode == null) {
+            throw new IllegalArgumentException("null is not allowed");
+        }
+        this.outputMode = outputMode;
+    }
+
+    public synchronized boolean isSharedResources() {
+        return sharedResources != null;
+    }
+
+    /**
+     * if enabled, all new pages and all pages of this context that have
+     * no content yet use one resources dictionary (fonts, xobjects and
+     * graphics states). It is written once as indirect object instead of
+     * once per page, which makes documents with many pages smaller and
+     * faster to save and to parse. Pages that already use the shared
+     * resources keep them when this is disabled again.
+     *
+     * @param sharedResources true to share the resources
+     */
+    public synchronized void setSharedResources(boolean sharedResources) {
+        if (!sharedResources) {
+            this.sharedResources = null;
+            return;
+        }
+        if (this.sharedResources != null) {
+            return;
+        }
+        this.sharedResources = new PDResources();
+        this.sharedResources.getCOSObject().setDirect(false);
+        for (PDFPageWithStream page : pages) {
+            if (page.isFreshPage() && !page.getPage().hasContents()) {
+                useSharedResources(page);
+            }
+        }
+    }
+
+    private void useSharedResources(PDFPageWithStream page) {
+        page.getPage().setResources(sharedResources);
+        for (Map.Entry<PDFont, COSName> entry : fontResourceNames.entrySet()) {
+            registerFont(page, entry.getKey(), entry.getValue());
+        }
+    }
+
+    private void updatePageCompression() {
+        for (PDFPageWithStream page : pages) {
+            page.setContentCompression(contentCompression, parallelCompression);
+        }
+    }
+
+    private PDFPageWithStream createPage(PDPage page) {
+        final PDFPageWithStream result = new PDFPageWithStream(document, page);
+        result.setContentCompression(contentCompression, parallelCompression);
+        synchronized (this) {
+            if (sharedResources != null) {
+                page.setResources(sharedResources);
+            }
+            for (Map.Entry<PDFont, COSName> entry : fontResourceNames.entrySet()) {
+                registerFont(result, entry.getKey(), entry.getValue());
+            }
+        }
+        return result;
+    }
+
+    /**
+     * returns the instance of the given font that is used in the document
+     * of this context. Fonts that are logically the same, like several
+     * instances of the same standard 14 font, are mapped to one instance,
+     * so the document contains a single font dictionary per font that has
+     * the same resource name on all pages.
+     *
+     * @param font the font
+     * @return the font to use in the document
+     */
+    public synchronized PDFont getDocumentFont(PDFont font) {
+        if (font == null) {
+            throw new IllegalArgumentException("null is not allowed");
+        }
+        final Standard14Fonts.FontName standardFontName = getStandardFontName(font);
+        final Object key = standardFontName == null ? font : standardFontName;
+        PDFont documentFont = documentFonts.get(key);
+        if (documentFont == null) {
+            // standard fonts get an instance of their own, which is
+            // never shared with other documents
+            documentFont = standardFontName == null ? font : new PDType1Font(standardFontName);
+            documentFonts.put(key, documentFont);
+            final COSName name = COSName.getPDFName("F" + (fontResourceNames.size() + 1));
+            fontResourceNames.put(documentFont, name);
+            for (PDFPageWithStream page : pages) {
+                registerFont(page, documentFont, name);
+            }
+        }
+        return documentFont;
+    }
+
+    /**
+     * returns the name of the standard 14 font if the given font is just a
+     * reference to one (as created by {@link PDType1Font#PDType1Font(Standard14Fonts.FontName)}),
+     * null otherwise
+     */
+    static Standard14Fonts.FontName getStandardFontName(PDFont font) {
+        if (!(font instanceof PDType1Font) || !font.isStandard14()) {
+            return null;
+        }
+        final COSDictionary dict = font.getCOSObject();
+        for (COSName key : dict.keySet()) {
+            if (!COSName.TYPE.equals(key) && !COSName.SUBTYPE.equals(key)
+                    && !COSName.BASE_FONT.equals(key) && !COSName.ENCODING.equals(key)) {
+                return null;
+            }
+        }
+        final COSBase encoding = dict.getDictionaryObject(COSName.ENCODING);
+        if (encoding != null && !COSName.WIN_ANSI_ENCODING.equals(encoding)) {
+            return null;
+        }
+        return Standard14Fonts.getMappedFontName(font.getName());
+    }
+
+    /**
+     * adds the font with its name to the resources of the given page,
+     * unless the name is already taken
+     */
+    private static void registerFont(PDFPageWithStream page, PDFont font, COSName name) {
+        PDResources resources = page.getPage().getResources();
+        if (resources == null) {
+            resources = new PDResources();
+            page.getPage().setResources(resources);
+        }
+        final COSDictionary fonts = resources.getCOSObject().getCOSDictionary(COSName.FONT);
+        if (fonts == null || !fonts.containsKey(name)) {
+            resources.put(name, font);
+        }
+    }
+
     public PDFPageWithStream getOrCreateNextPage(PDFPageWithStream currentPage) {
         int index = pages.indexOf(currentPage);
         if (index < 0) {
@@ -100,7 +340,7 @@ public class PDFRenderContext {
             throw new IllegalArgumentException("Not a page of this context");
         }
         final PDPage newPdPage = new PDPage(afterPage.getPage().getMediaBox());
-        PDFPageWithStream newPage = new PDFPageWithStream(document, newPdPage);
+        PDFPageWithStream newPage = createPage(newPdPage);
 
         // Insert into pages list
         pages.add(afterIndex + 1, newPage);
@@ -122,10 +362,148 @@ public class PDFRenderContext {
         return addPageAfter(getLastPage());
     }
 
+    /**
+     * creates a context for a new document that renders like this context
+     * (same page size, compression, shared resources, form caching and
+     * names of the standard fonts), so
+     * that a part of a table can be rendered into it in parallel and its
+     * pages can be appended later on, see {@link #appendShard(PDFRenderContext)}
+     */
+    PDFRenderContext createShard() {
+        final PDFRenderContext shard = new PDFRenderContext(new PDDocument(),
+                new PDPage(getLastPage().getPage().getMediaBox()));
+        // the shard itself is rendered in parallel already
+        shard.setContentCompression(contentCompression);
+        shard.setSharedResources(isSharedResources());
+        if (cellFormCache != null) {
+            shard.setCellFormCache(new CellFormCache(cellFormCache.getMaxSize()));
+        }
+        shard.setExecutor(executor);
+        synchronized (this) {
+            // same font names as in this document, as far as possible
+            for (PDFont font : fontResourceNames.keySet()) {
+                if (getStandardFontName(font) != null) {
+                    shard.getDocumentFont(font);
+                }
+            }
+        }
+        return shard;
+    }
+
+    /**
+     * appends the pages of the given shard (whose pages need to be closed
+     * already) to the document of this context and closes the document of
+     * the shard. The last page of this context needs to be the last page
+     * of the document.
+     *
+     * @param shard the shard to append
+     * @throws IOException
+     */
+    void appendShard(PDFRenderContext shard) throws IOException {
+        final int pageCount = document.getNumberOfPages();
+        try {
+            new PDFMergerUtility().appendDocument(document, shard.getDocument());
+        } finally {
+            shard.getDocument().close();
+        }
+        int index = 0;
+        for (PDPage page : document.getPages()) {
+            if (index++ >= pageCount) {
+                final PDFPageWithStream appendedPage = new PDFPageWithStream(document, page);
+                appendedPage.setContentCompression(contentCompression, parallelCompression);
+                pages.add(appendedPage);
+            }
+        }
+        getLastPage().setRenderedYPosition(shard.getLastPage().getRenderedYPosition());
+    }
+
     public void closeAllPages() throws IOException {
+        final Map<ContentCompression, List<PDPage>> deferredPages = new EnumMap<>(ContentCompression.class);
         for (PDFPageWithStream page : pages) {
             page.close();
+            if (page.isCompressionDeferred()) {
+                deferredPages.computeIfAbsent(page.getPendingCompression(), c -> new ArrayList<>())
+                        .add(page.getPage());
+            }
+        }
+        for (Map.Entry<ContentCompression, List<PDPage>> entry : deferredPages.entrySet()) {
+            ContentCompressor.compress(entry.getValue(), entry.getKey(), executor);
         }
+        for (PDFPageWithStream page : pages) {
+            if (page.isCompressionDeferred()) {
+                page.compressionDone();
+            }
+        }
+    }
+
+    /**
+     * returns the executor that is used for asynchronous rendering
+     * and saving if no other executor is given
+     *
+     * @return the executor
+     */
+    public Executor getExecutor() {
+        return executor;
+    }
+
+    /**
+     * sets the executor that is used for asynchronous rendering and saving
+     * if no other executor is given. Defaults to virtual threads on Java 21+
+     * and to a pool of daemon threads on older versions.
+     *
+     * @param executor the executor
+     */
+    public void setExecutor(Executor executor) {
+        if (executor == null) {
+            throw new IllegalArgumentException("null is not allowed");
+        }
+        this.executor = executor;
+    }
+
+    /**
+     * closes all pages and saves the document to the given stream
+     * using the output mode of this context. The stream is not closed.
+     *
+     * @param out the stream to save the document to
+     * @return the size of the saved document in bytes
+     * @throws IOException
+     */
+    public long save(OutputStream out) throws IOException {
+        closeAllPages();
+        return PDFUtils.save(document, out, outputMode);
+    }
+
+    /**
+     * closes all pages and saves the document to the given stream
+     * asynchronously on the executor of this context. The stream
+     * is not closed.
+     *
+     * @param out the stream to save the document to
+     * @return a future that completes when the document is saved
+     */
+    public CompletableFuture<RenderResult> saveAsync(OutputStream out) {
+        return saveAsync(out, executor);
+    }
+
+    /**
+     * closes all pages and saves the document to the given stream
+     * asynchronously. The stream is not closed.
+     *
+     * @param out the stream to save the document to
+     * @param executor the executor to save on
+     * @return a future that completes when the document is saved
+     */
+    public CompletableFuture<RenderResult> saveAsync(OutputStream out, Executor executor) {
+        return CompletableFuture.supplyAsync(() -> {
+            try {
+                final long bytesWritten = save(out);
+                final PDFPageWithStream lastPage = getLastPage();
+                return new RenderResult(getPageCount(), lastPage,
+                        lastPage.getRenderedYPosition(), bytesWritten);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }, executor);
     }
 
 }
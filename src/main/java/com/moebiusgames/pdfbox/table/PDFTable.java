@@ -25,13 +25,26 @@ package com.moebiusgames.pdfbox.table;
 
 import java.awt.Color;
 import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
 import java.util.Iterator;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 import org.apache.log4j.Logger;
+import org.apache.pdfbox.io.IOUtils;
+import org.apache.pdfbox.pdmodel.PDDocument;
 import org.apache.pdfbox.pdmodel.PDPageContentStream;
+import org.apache.pdfbox.pdmodel.common.PDRectangle;
+import org.apache.pdfbox.pdmodel.graphics.form.PDFormXObject;
+import org.apache.pdfbox.pdmodel.interactive.annotation.PDAppearanceStream;
 
 /**
  * A simple PDFTable implementation for PDFBox
@@ -44,12 +57,28 @@ public class PDFTable {
     public static int NOT_SET = -1;
     public static final float AUTO_DETERMINE_COLUMN_WIDTH = Float.NEGATIVE_INFINITY;
     public static Color NOT_SET_COLOR = new Color(255, 0, 255, 0);
+    public static final int DEFAULT_ESTIMATE_SAMPLE_ROWS = 64;
+    // rounding differences between a fresh page and the measured space
+    private static final float PAGE_SPACE_TOLERANCE = 0.01f;
+
+    // rough shallow sizes (compressed oops) used by estimate()
+    private static final long ROW_HEAP_BYTES = 64;
+    private static final long CELL_HEAP_BYTES = 112;
+    private static final long STRING_HEAP_BYTES = 40;
+    private static final long REFERENCE_HEAP_BYTES = 4;
+    // approximate compressed output per page, cell and character of content
+    private static final long PAGE_OUTPUT_BYTES = 900;
+    private static final long STYLE_OUTPUT_BYTES = 120;
+    private static final double CELL_OUTPUT_BYTES = 16;
+    private static final double CHAR_OUTPUT_BYTES = 0.1;
 
     private final PageSettings pageSettings = new PageSettings();
     private final List<PDFTableColumn> columns = new ArrayList<>();
     private final List<PDFTableRow> rows = new ArrayList<>();
 
     private ColumnHeadersMode columnHeadersMode = ColumnHeadersMode.COLUMN_HEADERS_ON_FIRST_PAGE;
+    private PaginationPolicy paginationPolicy = new PaginationPolicy();
+    private boolean continued = false;
 
     public PDFTable(float... columnWidths) {
         for (int i = 0; i < columnWidths.length; ++i) {
@@ -60,6 +89,38 @@ public class PDFTable {
         }
     }
 
+    /**
+     * creates a new table that uses the given table as template: the
+     * columns, page settings, column headers mode and pagination policy
+     * are copied, but not the rows. All style objects (fonts, colors and borders) are shared
+     * with the template, so creating a table this way just costs
+     * O(columns). Shared borders are copied on write: getting a border of
+     * a column to modify it copies it first, so neither the template nor
+     * other tables are changed.
+     *
+     * @param template the template table
+     */
+    public PDFTable(PDFTable template) {
+        for (PDFTableColumn column : template.columns) {
+            columns.add(new PDFTableColumn(this, column));
+        }
+        this.pageSettings.setMarginTop(template.pageSettings.getMarginTop());
+        this.pageSettings.setMarginBottom(template.pageSettings.getMarginBottom());
+        this.columnHeadersMode = template.columnHeadersMode;
+        this.paginationPolicy = new PaginationPolicy(template.paginationPolicy);
+    }
+
+    /**
+     * creates a table of one column without headers
+     * that uses the given border on all sides
+     */
+    static PDFTable createLabelTable(float width, PDFTableBorder border) {
+        final PDFTable table = new PDFTable();
+        table.addColumn(width, border);
+        table.columnHeadersMode = ColumnHeadersMode.NO_COLUMN_HEADERS;
+        return table;
+    }
+
     /**
      * returns the settings that are used as templates
      * for every new page
@@ -81,6 +142,22 @@ public class PDFTable {
         this.columnHeadersMode = columnHeadersMode;
     }
 
+    public PaginationPolicy getPaginationPolicy() {
+        return paginationPolicy;
+    }
+
+    /**
+     * sets the policy that decides where rows are broken into pages
+     *
+     * @param paginationPolicy the policy
+     */
+    public void setPaginationPolicy(PaginationPolicy paginationPolicy) {
+        if (paginationPolicy == null) {
+            throw new IllegalArgumentException("null is not allowed");
+        }
+        this.paginationPolicy = paginationPolicy;
+    }
+
     public PDFTableColumn getColumn(int index) {
         if (index < 0 || index >= this.columns.size()) {
             throw new IllegalArgumentException("index is out of range");
@@ -98,10 +175,84 @@ public class PDFTable {
         return row;
     }
 
+    /**
+     * adds a copy of the given template row. The template row needs to have
+     * the same amount of columns as this table, usually it is created with
+     * {@link #createTemplateRow()} on this table or on the template of this table.
+     * The layout of the template's cells is carried over, so cells that are
+     * not changed afterwards don't need to be laid out again.
+     *
+     * @param template the template row
+     * @return the new row
+     */
+    public PDFTableRow addRow(PDFTableRow template) {
+        if (template.cells.size() != columns.size()) {
+            throw new IllegalArgumentException("template row has " + template.cells.size()
+                    + " columns but the table has " + columns.size());
+        }
+        final PDFTableRow row = new PDFTableRow(this, rows.size(), template);
+        rows.add(row);
+        return row;
+    }
+
+    /**
+     * creates a row that is not part of this table, but can be used
+     * as template for {@link #addRow(PDFTableRow)}
+     *
+     * @return the template row
+     */
+    public PDFTableRow createTemplateRow() {
+        return new PDFTableRow(this, -1);
+    }
+
     public int getRows() {
         return this.rows.size();
     }
 
+    /**
+     * sets the numbers of a column, starting at the first row. Rows are
+     * added as needed. See {@link PDFTableCell#setNumber(long)}.
+     *
+     * @param colIndex the index of the column
+     * @param numbers the numbers
+     */
+    public void setNumbers(int colIndex, long... numbers) {
+        final PDFTableColumn column = getColumn(colIndex);
+        ensureRows(numbers.length);
+        for (int rowIndex = 0; rowIndex < numbers.length; ++rowIndex) {
+            getNumberCell(rowIndex, colIndex).setNumberContent(column.formatNumber(numbers[rowIndex]));
+        }
+    }
+
+    /**
+     * sets the numbers of a column, starting at the first row. Rows are
+     * added as needed. See {@link PDFTableCell#setNumber(double)}.
+     *
+     * @param colIndex the index of the column
+     * @param numbers the numbers
+     */
+    public void setNumbers(int colIndex, double... numbers) {
+        final PDFTableColumn column = getColumn(colIndex);
+        ensureRows(numbers.length);
+        for (int rowIndex = 0; rowIndex < numbers.length; ++rowIndex) {
+            getNumberCell(rowIndex, colIndex).setNumberContent(column.formatNumber(numbers[rowIndex]));
+        }
+    }
+
+    private void ensureRows(int rowCount) {
+        while (rows.size() < rowCount) {
+            addRow();
+        }
+    }
+
+    private PDFTableCell getNumberCell(int rowIndex, int colIndex) {
+        final PDFTableCell cell = rows.get(rowIndex).cells.get(colIndex);
+        if (cell == null) {
+            throw new IllegalArgumentException("cell in row " + rowIndex + " is merged");
+        }
+        return cell;
+    }
+
     public PDFTableRow getRow(int index) {
         if (index < 0 || index >= this.rows.size()) {
             throw new IllegalArgumentException("index is out of range");
@@ -146,31 +297,649 @@ public class PDFTable {
      * @throws IOException
      */
     public void render(PDFRenderContext renderContext, PDFPageWithStream page, float x, float y) throws IOException {
-        log.debug("Rendering table at position x=" + x + ", y=" + y);
-        PDFTableRow headingRow = prepareHeadingRow();
+        renderTable(renderContext, page, x, y);
+    }
+
+    /**
+     * renders this table followed by all rows of the given source, starting
+     * at the last page directly under the last rendered element. The rows of
+     * the source are rendered in batches: at most batchSize rows are held in
+     * memory at once, each batch is rendered before the next one is read.
+     * This table is not modified. Rows that are kept with the next row are
+     * only kept with rows of the same batch.
+     *
+     * @param renderContext the render context that collects all pages
+     * @param x             the x position to render the table
+     * @param source        the source of the rows
+     * @param batchSize     the max amount of rows to hold in memory
+     * @return the result of the rendering
+     * @throws IOException
+     */
+    public RenderResult render(PDFRenderContext renderContext, float x, RowSource source, int batchSize)
+            throws IOException {
+        if (source == null) {
+            throw new IllegalArgumentException("null is not allowed");
+        }
+        return startSession(renderContext, x).appendRows(source, batchSize);
+    }
+
+    /**
+     * renders this table (heading and current rows) starting at the last
+     * page directly under the last rendered element and returns a session
+     * to append more rows to it later on
+     *
+     * @param renderContext the render context that collects all pages
+     * @param x             the x position to render the table
+     * @return the session
+     * @throws IOException
+     * @see TableRenderSession
+     */
+    public TableRenderSession startSession(PDFRenderContext renderContext, float x) throws IOException {
+        final PDFPageWithStream page = renderContext.getLastPage();
+        return startSession(renderContext, page, x, page.getRenderedYPosition());
+    }
+
+    /**
+     * renders this table (heading and current rows) on the given page and
+     * returns a session to append more rows to it later on
+     *
+     * @param renderContext the render context that collects all pages
+     * @param page          the page to start on
+     * @param x             the x position to render the table
+     * @param y             the y position to render the table
+     * @return the session
+     * @throws IOException
+     * @see TableRenderSession
+     */
+    public TableRenderSession startSession(PDFRenderContext renderContext, PDFPageWithStream page,
+            float x, float y) throws IOException {
+        final RenderCursor cursor = startTable(renderContext, page, x, y);
+        renderRows(renderContext, cursor);
+        return new TableRenderSession(renderContext, new PDFTable(this), cursor);
+    }
+
+    /**
+     * continues a render that was interrupted after the given checkpoint.
+     * The session starts on the last page of the render context, which
+     * needs to be empty and is the page the checkpoint was taken for, the
+     * repeated heading is rendered there. The rows of this table are not
+     * rendered: the rows of the interrupted render need to be appended,
+     * starting with the row at {@link RenderCheckpoint#getRowIndex()}.
+     * Rendering the same rows with the same table continues exactly like
+     * the interrupted render.
+     *
+     * @param renderContext the render context to continue in
+     * @param x             the x position to render the table
+     * @param checkpoint    the last checkpoint of the interrupted render
+     * @return the session
+     * @throws IOException
+     */
+    public TableRenderSession resumeSession(PDFRenderContext renderContext, float x, RenderCheckpoint checkpoint)
+            throws IOException {
+        if (checkpoint == null) {
+            throw new IllegalArgumentException("null is not allowed");
+        }
+        return new TableRenderSession(renderContext, new PDFTable(this),
+                resumeCursor(renderContext, x, checkpoint));
+    }
+
+    /**
+     * renders the repeated heading on the last page of the render context
+     * and returns the cursor to continue with the rows after the checkpoint
+     */
+    private RenderCursor resumeCursor(PDFRenderContext renderContext, float x, RenderCheckpoint checkpoint)
+            throws IOException {
+        PDFPageWithStream page = renderContext.getLastPage();
+        if (!page.isFreshPage()) {
+            throw new IllegalArgumentException("A render can only be resumed on an empty page");
+        }
+        final PagePosition pos = new PagePosition(x,
+                page.getPage().getMediaBox().getHeight() - pageSettings.getMarginTop());
+        RepeatedHeadingRow repeatedHeadingRow = null;
+        float repeatedHeadingHeight = 0;
+        if (columnHeadersMode == ColumnHeadersMode.COLUMN_HEADERS_ON_EVERY_PAGE) {
+            final PDFTableRow headingRow = prepareHeadingRow();
+            repeatedHeadingRow = new RepeatedHeadingRow(headingRow);
+            repeatedHeadingHeight = getRequiredHeight(headingRow);
+            page = repeatedHeadingRow.render(page, pos, x, renderContext);
+        }
+        final RenderCursor cursor = new RenderCursor(page, pos, x, repeatedHeadingRow, repeatedHeadingHeight);
+        cursor.renderedRows = checkpoint.getRowIndex();
+        cursor.resumeLines = checkpoint.getSplitLines().length == 0 ? null : checkpoint.getSplitLines();
+        cursor.pageOffset = checkpoint.getPageCount() - (renderContext.getPageCount() - 1);
+        return cursor;
+    }
+
+    /**
+     * renders this table like {@link #render(PDFRenderContext, float)}, but
+     * splits the pages into shards that are rendered into separate documents
+     * in parallel on the executor of the render context. The pages of the
+     * shards are then appended to the document of the render context in
+     * order. Every shard starts at the top of a page: a pre-pass lays out
+     * all cells (in parallel) and breaks the rows into pages without
+     * rendering them, which determines the row (and the lines of a split
+     * row) each shard starts with. So the pages are exactly the ones of a
+     * sequential render, including the repeated headings.
+     *
+     * The table is rendered sequentially if the render context has a render
+     * budget, if a font is not a standard 14 font (embedded fonts belong
+     * to a single document), if the repeated heading does not fit on a page
+     * or if the last page of the context is not the last page of its
+     * document.
+     *
+     * @param renderContext the render context that collects all pages
+     * @param x             the x position to render the table
+     * @param shards        the max amount of shards, usually the amount of cores
+     * @return the result of the rendering
+     * @throws IOException
+     */
+    public RenderResult renderSharded(PDFRenderContext renderContext, float x, int shards) throws IOException {
+        if (shards < 1) {
+            throw new IllegalArgumentException("shards must be at least 1");
+        }
+        final boolean standardFonts = layoutRows(renderContext.getExecutor());
+        final PDFPageWithStream page = renderContext.getLastPage();
+        final RenderCursor cursor = startTable(renderContext, page, x, page.getRenderedYPosition());
+        final RowHeights heights = measureRows();
+        final List<RenderCheckpoint> starts = shards > 1 && standardFonts && isShardable(renderContext, cursor)
+                ? planShards(renderContext, cursor, heights, shards)
+                : Collections.emptyList();
+
+        final List<CompletableFuture<PDFRenderContext>> results = new ArrayList<>(starts.size());
+        for (int i = 0; i < starts.size(); ++i) {
+            final RenderCheckpoint start = starts.get(i);
+            final int pageLimit = i + 1 < starts.size() ? starts.get(i + 1).getPageCount() : Integer.MAX_VALUE;
+            results.add(CompletableFuture.supplyAsync(
+                    () -> renderShard(renderContext, x, heights, start, pageLimit), renderContext.getExecutor()));
+        }
+        try {
+            // the first shard is rendered directly into the render context
+            cursor.pageLimit = starts.isEmpty() ? Integer.MAX_VALUE : starts.get(0).getPageCount();
+            renderRows(renderContext, cursor, heights, 0);
+            for (CompletableFuture<PDFRenderContext> result : results) {
+                renderContext.appendShard(joinShard(result));
+            }
+        } catch (IOException | RuntimeException e) {
+            for (CompletableFuture<PDFRenderContext> result : results) {
+                result.thenAccept(shard -> IOUtils.closeQuietly(shard.getDocument()));
+            }
+            throw e;
+        }
+        final PDFPageWithStream lastPage = renderContext.getLastPage();
+        return new RenderResult(renderContext.getPageCount(), lastPage,
+                lastPage.getRenderedYPosition(), -1);
+    }
+
+    /**
+     * lays out the content of all cells in parallel chunks. Values are
+     * formatted on the calling thread before, as neither value formatters
+     * nor number formats have to be thread safe.
+     *
+     * @return true if all cells use standard 14 fonts
+     */
+    private boolean layoutRows(Executor executor) {
+        final int rowCount = rows.size();
+        for (PDFTableRow row : rows) {
+            for (PDFTableCell cell : row.cells) {
+                if (cell != null) {
+                    cell.getContent();
+                }
+            }
+        }
+        final int chunks = Math.min(rowCount, Runtime.getRuntime().availableProcessors());
+        final AtomicBoolean standardFonts = new AtomicBoolean(true);
+        final CompletableFuture<?>[] futures = new CompletableFuture<?>[chunks];
+        for (int c = 0; c < chunks; ++c) {
+            final int from = c * rowCount / chunks;
+            final int to = (c + 1) * rowCount / chunks;
+            futures[c] = CompletableFuture.runAsync(() -> {
+                for (int i = from; i < to; ++i) {
+                    for (PDFTableCell cell : rows.get(i).cells) {
+                        if (cell != null) {
+                            cell.updateContentLayout();
+                            if (PDFRenderContext.getStandardFontName(cell.getFont()) == null) {
+                                standardFonts.set(false);
+                            }
+                        }
+                    }
+                }
+            }, executor);
+        }
+        Utils.joinAll(futures);
+        return standardFonts.get();
+    }
+
+    /**
+     * returns true if the rows at the cursor can be rendered in shards
+     */
+    private boolean isShardable(PDFRenderContext renderContext, RenderCursor cursor) {
+        final PDDocument document = renderContext.getDocument();
+        if (renderContext.getRenderBudget() != null || document.getPage(document.getNumberOfPages() - 1)
+                .getCOSObject() != cursor.page.getPage().getCOSObject()) {
+            return false;
+        }
+        if (cursor.repeatedHeadingRow == null) {
+            return true;
+        }
+        for (PDFTableColumn column : columns) {
+            if (PDFRenderContext.getStandardFontName(column.getHeadingFont()) == null) {
+                return false;
+            }
+        }
+        return cursor.repeatedHeadingRow.getHeight() <= cursor.page.getPage().getMediaBox().getHeight()
+                - pageSettings.getMarginTop() - pageSettings.getMarginBottom();
+    }
+
+    /**
+     * breaks the rows at the cursor into pages without rendering them and
+     * returns the checkpoints of the pages the shards after the first one
+     * start with, so that all shards have about the same amount of pages
+     */
+    private List<RenderCheckpoint> planShards(PDFRenderContext renderContext, RenderCursor cursor,
+            RowHeights heights, int shards) throws IOException {
+        final RenderCursor dryRun = new RenderCursor(cursor.page, new PagePosition(cursor.pos.x, cursor.pos.y),
+                cursor.x, cursor.repeatedHeadingRow, cursor.repeatedHeadingHeight);
+        dryRun.dryRun = true;
+        dryRun.dryRunPages = renderContext.getPageCount();
+        final List<RenderCheckpoint> pageStarts = new ArrayList<>();
+        dryRun.setCheckpoints(renderContext, 1, (context, checkpoint) -> pageStarts.add(checkpoint));
+        renderRows(renderContext, dryRun, heights, 0);
+
+        final int pages = pageStarts.size() + 1;
+        final int count = Math.min(shards, pages);
+        final List<RenderCheckpoint> starts = new ArrayList<>(count - 1);
+        for (int shard = 1; shard < count; ++shard) {
+            starts.add(pageStarts.get(shard * pages / count - 1));
+        }
+        return starts;
+    }
+
+    /**
+     * renders the rows from the given checkpoint on into the first page
+     * of a new document, until the page limit is reached
+     *
+     * @return the render context of the new document with closed pages
+     */
+    private PDFRenderContext renderShard(PDFRenderContext renderContext, float x, RowHeights heights,
+            RenderCheckpoint start, int pageLimit) {
+        final PDFRenderContext shard = renderContext.createShard();
+        try {
+            final RenderCursor cursor = resumeCursor(shard, x, start);
+            cursor.pageLimit = pageLimit;
+            renderRows(shard, cursor, heights, (int) start.getRowIndex());
+            shard.closeAllPages();
+            return shard;
+        } catch (IOException e) {
+            IOUtils.closeQuietly(shard.getDocument());
+            throw new UncheckedIOException(e);
+        } catch (RuntimeException e) {
+            IOUtils.closeQuietly(shard.getDocument());
+            throw e;
+        }
+    }
+
+    private static PDFRenderContext joinShard(CompletableFuture<PDFRenderContext> result) throws IOException {
+        try {
+            return result.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof UncheckedIOException) {
+                throw ((UncheckedIOException) e.getCause()).getCause();
+            }
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * replaces the rows of this table with up to the given amount of
+     * rows read from the source
+     *
+     * @return false if the source has no more rows
+     */
+    boolean fillRows(RowSource source, int count) throws IOException {
+        clearRows();
+        while (rows.size() < count) {
+            if (!source.nextRow(addRow())) {
+                rows.remove(rows.size() - 1);
+                return false;
+            }
+        }
+        return true;
+    }
+
+    void clearRows() {
+        rows.clear();
+    }
+
+    /**
+     * adds a column that uses the given border on all sides,
+     * only possible as long as the table has no rows
+     */
+    PDFTableColumn addColumn(float width, PDFTableBorder border) {
+        if (width < 0) {
+            throw new IllegalArgumentException("column " + (columns.size() + 1) + " size is < 0");
+        }
+        if (!rows.isEmpty()) {
+            throw new IllegalStateException("columns can't be added to a table with rows");
+        }
+        final PDFTableColumn column = new PDFTableColumn(this, width, border);
+        columns.add(column);
+        return column;
+    }
+
+    /**
+     * returns true if the rows of this table continue rows that
+     * were already rendered, so the first row is not the top of the table
+     */
+    boolean isContinued() {
+        return continued;
+    }
+
+    void setContinued(boolean continued) {
+        this.continued = continued;
+    }
+
+    /**
+     * renders this table asynchronously on the executor of the render
+     * context and starts at the last page directly under the last
+     * rendered element
+     *
+     * @param renderContext the render context that collects all pages
+     * @param x             the x position to render the table
+     * @return a future that completes when the table is rendered
+     * @see #renderAsync(PDFRenderContext, float, float, Executor)
+     */
+    public CompletableFuture<RenderResult> renderAsync(PDFRenderContext renderContext, float x) {
+        return renderAsync(renderContext, x, null, renderContext.getExecutor());
+    }
+
+    /**
+     * renders this table asynchronously and starts at the last page
+     * directly under the last rendered element
+     *
+     * @param renderContext the render context that collects all pages
+     * @param x             the x position to render the table
+     * @param executor      the executor to render on
+     * @return a future that completes when the table is rendered
+     * @see #renderAsync(PDFRenderContext, float, float, Executor)
+     */
+    public CompletableFuture<RenderResult> renderAsync(PDFRenderContext renderContext, float x, Executor executor) {
+        return renderAsync(renderContext, x, null, executor);
+    }
+
+    /**
+     * renders this table asynchronously on the executor of the render
+     * context and starts at the last page
+     *
+     * @param renderContext the render context that collects all pages
+     * @param x             the x position to render the table
+     * @param y             the y position to render the table
+     * @return a future that completes when the table is rendered
+     * @see #renderAsync(PDFRenderContext, float, float, Executor)
+     */
+    public CompletableFuture<RenderResult> renderAsync(PDFRenderContext renderContext, float x, float y) {
+        return renderAsync(renderContext, x, (Float) y, renderContext.getExecutor());
+    }
+
+    /**
+     * renders this table asynchronously and starts at the last page. The
+     * content of all cells is laid out first and then the table is
+     * paginated and rendered, both as separate stages on the given executor.
+     * Neither the table nor the render context must be modified
+     * until the returned future completed. Use
+     * {@link PDFRenderContext#saveAsync(java.io.OutputStream)} to chain
+     * saving the document.
+     *
+     * @param renderContext the render context that collects all pages
+     * @param x             the x position to render the table
+     * @param y             the y position to render the table
+     * @param executor      the executor to render on
+     * @return a future that completes when the table is rendered
+     */
+    public CompletableFuture<RenderResult> renderAsync(PDFRenderContext renderContext, float x, float y,
+            Executor executor) {
+        return renderAsync(renderContext, x, (Float) y, executor);
+    }
+
+    private CompletableFuture<RenderResult> renderAsync(PDFRenderContext renderContext, float x, Float y,
+            Executor executor) {
+        return CompletableFuture.runAsync(this::updateContentLayouts, executor)
+                .thenApplyAsync(v -> {
+                    final PDFPageWithStream page = renderContext.getLastPage();
+                    try {
+                        final PDFPageWithStream lastPage = renderTable(renderContext, page, x,
+                                y == null ? page.getRenderedYPosition() : y);
+                        return new RenderResult(renderContext.getPageCount(), lastPage,
+                                lastPage.getRenderedYPosition(), -1);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                }, executor);
+    }
+
+    /**
+     * lays out the content of all cells (which is then reused while rendering)
+     */
+    private void updateContentLayouts() {
+        for (PDFTableRow row : rows) {
+            for (PDFTableCell cell : row.cells) {
+                if (cell != null) {
+                    cell.updateContentLayout();
+                }
+            }
+        }
+    }
+
+    PDFPageWithStream renderTable(PDFRenderContext renderContext, PDFPageWithStream page, float x, float y)
+            throws IOException {
+        final RenderCursor cursor = startTable(renderContext, page, x, y);
+        renderRows(renderContext, cursor);
+        return cursor.page;
+    }
+
+    /**
+     * renders the heading of this table (depending on the column headers
+     * mode) and returns the cursor to render the rows at
+     */
+    RenderCursor startTable(PDFRenderContext renderContext, PDFPageWithStream page, float x, float y)
+            throws IOException {
+        if (log.isDebugEnabled()) {
+            log.debug("Rendering table at position x=" + x + ", y=" + y);
+        }
+        PDFTableRow headingRow = columnHeadersMode == ColumnHeadersMode.NO_COLUMN_HEADERS
+                ? null
+                : prepareHeadingRow();
         PagePosition pos = new PagePosition(x, y);
 
         // draw headers if needed
         if (columnHeadersMode == ColumnHeadersMode.COLUMN_HEADERS_ON_FIRST_PAGE
                 || columnHeadersMode == ColumnHeadersMode.COLUMN_HEADERS_ON_EVERY_PAGE) {
-            page = renderRow(page, headingRow, null, pos, x, renderContext, true);
+            page = renderRow(page, headingRow, null, pos, x, renderContext, true, null);
         }
 
-        for (int rowIndex = 0; rowIndex < this.rows.size(); ++rowIndex) {
+        if (columnHeadersMode == ColumnHeadersMode.COLUMN_HEADERS_ON_EVERY_PAGE) {
+            return new RenderCursor(page, pos, x, new RepeatedHeadingRow(headingRow),
+                    getRequiredHeight(headingRow));
+        }
+        return new RenderCursor(page, pos, x, null, 0);
+    }
+
+    /**
+     * renders all rows of this table at the given cursor
+     */
+    void renderRows(PDFRenderContext renderContext, RenderCursor cursor) throws IOException {
+        renderRows(renderContext, cursor, measureRows(), 0);
+    }
+
+    /**
+     * measures the heights all page break decisions are made from
+     */
+    private RowHeights measureRows() throws IOException {
+        final int rowCount = this.rows.size();
+        final RowHeights heights = new RowHeights(rowCount);
+        for (int rowIndex = rowCount - 1; rowIndex >= 0; --rowIndex) {
+            final PDFTableRow row = this.rows.get(rowIndex);
+            heights.rowHeights[rowIndex] = getRequiredHeight(row);
+            heights.orphanHeights[rowIndex] = getOrphanHeight(row);
+            heights.groupHeights[rowIndex] = heights.rowHeights[rowIndex];
+            if (row.isKeepWithNext() && rowIndex + 1 < rowCount) {
+                heights.groupHeights[rowIndex] += heights.groupHeights[rowIndex + 1];
+            }
+        }
+        return heights;
+    }
+
+    /**
+     * renders the rows of this table from the given row on at the given
+     * cursor until the page limit of the cursor is reached
+     */
+    private void renderRows(PDFRenderContext renderContext, RenderCursor cursor, RowHeights heights,
+            int fromRow) throws IOException {
+        final float[] rowHeights = heights.rowHeights;
+        final float[] orphanHeights = heights.orphanHeights;
+        final float[] groupHeights = heights.groupHeights;
+        final int rowCount = this.rows.size();
+        final RenderBudget budget = cursor.dryRun ? null : renderContext.getRenderBudget();
+        final PagePosition pos = cursor.pos;
+        PDFPageWithStream page = cursor.page;
+        for (int rowIndex = fromRow; rowIndex < rowCount; ++rowIndex) {
             PDFTableRow row = this.rows.get(rowIndex);
-            page = renderRow(page, row, headingRow, pos, x, renderContext);
+            if (budget != null) {
+                budget.checkRow(renderContext);
+            }
+            final float pageSpace = page.getPage().getMediaBox().getHeight() - pageSettings.getMarginTop()
+                    - pageSettings.getMarginBottom() - cursor.repeatedHeadingHeight;
+            final float freeSpace = pos.y - pageSettings.getMarginBottom();
+            if (isPageBreakNeeded(freeSpace, pageSpace, rowHeights[rowIndex],
+                    orphanHeights[rowIndex], groupHeights[rowIndex])) {
+                page = startNewPage(page, cursor.repeatedHeadingRow, pos, cursor.x, renderContext, cursor, null);
+                if (cursor.complete) {
+                    break;
+                }
+            }
+            page = renderRow(page, row, cursor.repeatedHeadingRow, pos, cursor.x, renderContext, false, cursor);
+            cursor.page = page;
+            if (cursor.complete) {
+                break;
+            }
+            cursor.renderedRows++;
+            if (budget != null) {
+                budget.rowRendered();
+            }
+        }
+    }
+
+    /**
+     * decides if a row needs to start on a new page
+     *
+     * @param freeSpace the space left on the current page
+     * @param pageSpace the space rows have on a new page
+     * @param rowHeight the height of the whole row
+     * @param orphanHeight the height of the lines that must stay together
+     * at the start of the row
+     * @param groupHeight the height of the row and all rows kept with it
+     * @return true if the row should start on a new page
+     */
+    private boolean isPageBreakNeeded(float freeSpace, float pageSpace, float rowHeight,
+            float orphanHeight, float groupHeight) {
+        if (freeSpace >= pageSpace - PAGE_SPACE_TOLERANCE) {
+            // a new page would not offer more space
+            return false;
+        }
+        if (groupHeight > rowHeight && groupHeight <= pageSpace) {
+            return groupHeight > freeSpace;
+        }
+        if (!paginationPolicy.isSplitAllowed() && rowHeight <= pageSpace) {
+            return rowHeight > freeSpace;
+        }
+        return orphanHeight > freeSpace;
+    }
+
+    /**
+     * returns the height a row needs to be rendered without a split
+     */
+    private static float getRequiredHeight(PDFTableRow row) throws IOException {
+        float height = row.getMinHeight();
+        for (PDFTableCell cell : row.cells) {
+            if (cell != null) {
+                cell.updateContentLayout();
+                height = Math.max(height, cell.getMinRequiredHeight());
+            }
         }
+        return height;
+    }
+
+    /**
+     * returns the height of the first lines of a row that
+     * must not be separated from each other
+     */
+    private float getOrphanHeight(PDFTableRow row) {
+        float height = 0;
+        for (PDFTableCell cell : row.cells) {
+            if (cell != null) {
+                final PDFTableCell.LaidoutContent content = cell.getLaidoutContent();
+                final int lines = Math.min(paginationPolicy.getMinOrphanLines(), content.getNumRows());
+                height = Math.max(height, content.getHeight(0, lines)
+                        + cell.getPaddingTop() + cell.getPaddingBottom());
+            }
+        }
+        return height;
+    }
+
+    /**
+     * continues on the next page and renders the repeated heading there
+     *
+     * @param cursor the cursor if rows of the table are rendered, null
+     * for headings
+     * @param splitCells the cells of the row that continues on the new
+     * page or null if a new row starts there
+     * @return the new page or the current page if the page limit of
+     * the cursor is reached or the cursor is a dry run
+     */
+    private PDFPageWithStream startNewPage(PDFPageWithStream currentPage, RepeatedHeadingRow headingRow,
+            PagePosition pos, float x, PDFRenderContext renderContext, RenderCursor cursor,
+            List<CellRenderInfo> splitCells) throws IOException {
+        final boolean dryRun = cursor != null && cursor.dryRun;
+        if (cursor != null) {
+            if (cursor.getPageCount(renderContext) >= cursor.pageLimit) {
+                // the following pages are rendered by another shard
+                cursor.complete = true;
+                return currentPage;
+            }
+            if (dryRun) {
+                cursor.dryRunPages++;
+            } else {
+                currentPage = nextPage(currentPage, renderContext);
+            }
+            cursor.pageStarted(renderContext, splitCells);
+        } else {
+            currentPage = nextPage(currentPage, renderContext);
+        }
+
+        pos.y = currentPage.getPage().getMediaBox().getHeight() - pageSettings.getMarginTop();
+        pos.x = x;
+
+        if (headingRow != null && columnHeadersMode == ColumnHeadersMode.COLUMN_HEADERS_ON_EVERY_PAGE) {
+            if (dryRun) {
+                headingRow.skip(pos, x);
+            } else {
+                currentPage = headingRow.render(currentPage, pos, x, renderContext);
+            }
+        }
+        return currentPage;
     }
 
     private PDFPageWithStream renderRow(PDFPageWithStream currentPage,
-            PDFTableRow row, PDFTableRow headingRow, PagePosition pos, float x, final PDFRenderContext renderContext)
+            PDFTableRow row, RepeatedHeadingRow headingRow, PagePosition pos, float x, final PDFRenderContext renderContext)
             throws IOException {
-        return renderRow(currentPage, row, headingRow, pos, x, renderContext, false);
+        return renderRow(currentPage, row, headingRow, pos, x, renderContext, false, null);
     }
 
     private PDFPageWithStream renderRow(PDFPageWithStream currentPage,
-            PDFTableRow row, PDFTableRow headingRow, PagePosition pos, float x, final PDFRenderContext renderContext,
-            boolean forceTopBorder) throws IOException {
+            PDFTableRow row, RepeatedHeadingRow headingRow, PagePosition pos, float x, final PDFRenderContext renderContext,
+            boolean forceTopBorder, RenderCursor cursor) throws IOException {
 
         pos.x = x;
         final List<CellRenderInfo> cellInfosList = new ArrayList<>(row.cells.size());
@@ -180,6 +949,16 @@ public class PDFTable {
                 cellInfosList.add(new CellRenderInfo(cell));
             }
         }
+        if (cursor != null && cursor.resumeLines != null) {
+            // the row was split before a checkpoint, skip the lines that are already rendered
+            if (cursor.resumeLines.length != cellInfosList.size()) {
+                throw new IllegalArgumentException("The checkpoint does not match row " + cursor.renderedRows);
+            }
+            for (int i = 0; i < cursor.resumeLines.length; ++i) {
+                cellInfosList.get(i).skipRows(cursor.resumeLines[i]);
+            }
+            cursor.resumeLines = null;
+        }
 
         float freeSpace = pos.y - pageSettings.getMarginBottom();
         boolean newPage = freeSpace <= 0;
@@ -189,19 +968,10 @@ public class PDFTable {
         while (cellInfosList.stream().anyMatch(cellInfo -> !cellInfo.isDone())) {
 
             if (newPage) {
-                currentPage = renderContext.getOrCreateNextPage(currentPage);
-
-                pos.y = currentPage.getPage().getMediaBox().getHeight() - pageSettings.getMarginTop();
-                pos.x = x;
-
-                if (headingRow != null && columnHeadersMode == ColumnHeadersMode.COLUMN_HEADERS_ON_EVERY_PAGE) {
-                    // recursive render headings
-                    currentPage = renderRow(currentPage, headingRow, null, pos, x, renderContext);
-                    pos.x = x;
-
-                    currentPage.setRenderedYPosition(pos.y);
+                currentPage = startNewPage(currentPage, headingRow, pos, x, renderContext, cursor, cellInfosList);
+                if (cursor != null && cursor.complete) {
+                    break;
                 }
-
                 freeSpace = pos.y - pageSettings.getMarginBottom();
             }
 
@@ -220,41 +990,38 @@ public class PDFTable {
                         // can't add more in-cell rows? -> done
                         if (!cellInfo.incEndRow()) {
                             iterator.remove();
-                        } else {
-                            // --- Disable splitting behaviour ---
-                            // If the full row height doesn't fit, move the entire row to the next page
-                            float rowHeight = row.getMaxHeight();
-                            if (rowHeight > freeSpace) {
-                                currentPage = renderContext.getOrCreateNextPage(currentPage);
-                                pos.y = currentPage.getPage().getMediaBox().getHeight() - pageSettings.getMarginTop();
-                                freeSpace = pos.y - pageSettings.getMarginBottom();
-
-                                if (headingRow != null
-                                        && columnHeadersMode == ColumnHeadersMode.COLUMN_HEADERS_ON_EVERY_PAGE) {
-                                    currentPage = renderRow(currentPage, headingRow, null, pos, x, renderContext);
-                                    pos.x = x;
-                                    currentPage.setRenderedYPosition(pos.y);
-                                }
-                            }
-                            if (cellInfo.getHeight() > freeSpace) {
-                                // takes more space than available? -> done
-                                cellInfo.decEndRow();
-                                iterator.remove();
-                            }
+                        } else if (cellInfo.getHeight() > freeSpace) {
+                            // takes more space than available? -> done
+                            cellInfo.decEndRow();
+                            iterator.remove();
                         }
                     }
                 }
             }
 
+            // leave enough lines for the next page
+            for (CellRenderInfo cellInfo : cellInfosList) {
+                cellInfo.keepWidows(paginationPolicy.getMinWidowLines());
+            }
+
             // determine max height of all cells
             float maxHeight = cellInfosList.stream()
                     .map(cellInfo -> cellInfo.getHeight())
                     .max(Float::compare).orElse(0f);
 
             // next: we actually render the cells' content
+            if (cursor != null && cursor.dryRun) {
+                for (CellRenderInfo cellInfo : cellInfosList) {
+                    cellInfo.skip();
+                }
+                pos.y -= maxHeight;
+                newPage = true;
+                continue;
+            }
             final boolean pageBreakBefore = currentPage.isFreshPage();
             for (CellRenderInfo cellInfo : cellInfosList) {
-                cellInfo.render(currentPage.getOrCreateStream(), pos, maxHeight, pageBreakBefore, forceTopBorder);
+                cellInfo.render(currentPage.getOrCreateStream(), pos, maxHeight, pageBreakBefore, forceTopBorder,
+                        renderContext, renderContext.getCellFormCache());
             }
             pos.y -= maxHeight;
 
@@ -268,6 +1035,15 @@ public class PDFTable {
         return currentPage;
     }
 
+    private PDFPageWithStream nextPage(PDFPageWithStream currentPage, PDFRenderContext renderContext)
+            throws IOException {
+        final RenderBudget budget = renderContext.getRenderBudget();
+        if (budget != null) {
+            budget.checkPage(renderContext, currentPage);
+        }
+        return renderContext.getOrCreateNextPage(currentPage);
+    }
+
     private PDFTableRow prepareHeadingRow() {
         // prepare heading row
         PDFTableRow headingRow = new PDFTableRow(this, -1);
@@ -315,6 +1091,182 @@ public class PDFTable {
         return rowHeights;
     }
 
+    /**
+     * fits the widths of the auto width columns to their content, see
+     * {@link #autoFitColumns(AutoFitOptions)}
+     */
+    public void autoFitColumns() {
+        autoFitColumns(new AutoFitOptions());
+    }
+
+    /**
+     * redistributes the total width of all columns marked as auto width
+     * (or of all columns if none is marked) according to their content:
+     * each column gets at least the width of its widest word and the
+     * rest is given to the columns where it saves the most height.
+     * On large tables only a sample of the rows is measured.
+     *
+     * @param options the sampling options
+     */
+    public void autoFitColumns(AutoFitOptions options) {
+        int fitColumnCount = 0;
+        for (PDFTableColumn column : columns) {
+            if (column.isAutoWidth()) {
+                fitColumnCount++;
+            }
+        }
+        final int[] fitColumns = new int[fitColumnCount == 0 ? columns.size() : fitColumnCount];
+        for (int colIndex = 0, i = 0; colIndex < columns.size(); ++colIndex) {
+            if (fitColumnCount == 0 || columns.get(colIndex).isAutoWidth()) {
+                fitColumns[i++] = colIndex;
+            }
+        }
+
+        final int rowCount = rows.size();
+        final int sampleCount = options.getMaxSampleRows() == NOT_SET
+                ? rowCount
+                : Math.min(rowCount, options.getMaxSampleRows());
+        final List<PDFTableRow> sampleRows = new ArrayList<>(sampleCount + 1);
+        if (columnHeadersMode != ColumnHeadersMode.NO_COLUMN_HEADERS) {
+            sampleRows.add(prepareHeadingRow());
+        }
+        for (int i = 0; i < sampleCount; ++i) {
+            sampleRows.add(rows.get((int) ((long) i * rowCount / sampleCount)));
+        }
+        new ColumnAutoFit(columns, fitColumns).fit(sampleRows, options);
+    }
+
+    /**
+     * estimates the resources needed to render this table on pages of the
+     * given height (starting at the top margin), see
+     * {@link #estimate(float, int)}
+     *
+     * @param pageHeight the height of the pages
+     * @return the estimate
+     * @throws IOException
+     */
+    public RenderEstimate estimate(float pageHeight) throws IOException {
+        return estimate(pageHeight, DEFAULT_ESTIMATE_SAMPLE_ROWS);
+    }
+
+    /**
+     * estimates the page count, the retained heap and the compressed output
+     * size of rendering this table on pages of the given height (starting
+     * at the top margin). Only up to sampleRows evenly distributed rows are
+     * laid out; all other rows just contribute their cell count and
+     * content length. Values that are not formatted yet are not formatted
+     * for this, their length is taken from the sampled cells. The layouts
+     * of the sampled rows are kept and reused when the table is rendered.
+     *
+     * @param pageHeight the height of the pages
+     * @param sampleRows the maximum amount of rows to lay out
+     * @return the estimate
+     * @throws IOException
+     */
+    public RenderEstimate estimate(float pageHeight, int sampleRows) throws IOException {
+        if (sampleRows < 1) {
+            throw new IllegalArgumentException("sampleRows must be at least 1");
+        }
+        final float usableHeight = pageHeight - pageSettings.getMarginTop() - pageSettings.getMarginBottom();
+        if (usableHeight <= 0) {
+            throw new IllegalArgumentException("pageHeight leaves no space between the margins");
+        }
+
+        // model: a full pass over the cells, but without any layout and
+        // without formatting values (their length is taken from the samples)
+        long cellCount = 0;
+        long deferredCells = 0;
+        long contentChars = 0;
+        long modelHeapBytes = 0;
+        for (PDFTableRow row : rows) {
+            modelHeapBytes += ROW_HEAP_BYTES + REFERENCE_HEAP_BYTES * row.cells.size();
+            for (PDFTableCell cell : row.cells) {
+                if (cell != null) {
+                    cellCount++;
+                    final int length = cell.getFormattedContentLength();
+                    if (length < 0) {
+                        deferredCells++;
+                    } else {
+                        contentChars += length;
+                    }
+                }
+            }
+        }
+
+        // layout: sampled rows
+        final Set<Object> styles = Collections.newSetFromMap(new IdentityHashMap<>());
+        final int rowCount = rows.size();
+        final int sampleCount = Math.min(rowCount, sampleRows);
+        float sampledHeight = 0;
+        long sampledCells = 0;
+        long sampledChars = 0;
+        long sampledLayoutBytes = 0;
+        for (int i = 0; i < sampleCount; ++i) {
+            final PDFTableRow row = rows.get((int) ((long) i * rowCount / sampleCount));
+            float rowHeight = row.getMinHeight();
+            for (PDFTableCell cell : row.cells) {
+                if (cell != null) {
+                    cell.updateContentLayout();
+                    sampledChars += cell.getContent().length();
+                    rowHeight = Math.max(rowHeight, cell.getMinRequiredHeight());
+                    sampledCells++;
+                    styles.add(cell.getFont());
+                    styles.add(cell.getFontColor());
+                    styles.add(cell.getBackgroundColor());
+                    sampledLayoutBytes += cell.estimateLayoutHeapBytes();
+                }
+            }
+            sampledHeight += rowHeight;
+        }
+        final long layoutHeapBytes = sampledCells == 0
+                ? 0
+                : (long) ((double) sampledLayoutBytes / sampledCells * cellCount);
+        if (sampledCells > 0) {
+            contentChars += (long) ((double) sampledChars / sampledCells * deferredCells);
+        }
+        modelHeapBytes += cellCount * (CELL_HEAP_BYTES + STRING_HEAP_BYTES) + contentChars;
+        final float averageRowHeight = sampleCount == 0 ? 0 : sampledHeight / sampleCount;
+
+        // pages: rows are moved to the next page as a whole if they fit on a page
+        float headingHeight = 0;
+        int headingCells = 0;
+        if (columnHeadersMode != ColumnHeadersMode.NO_COLUMN_HEADERS) {
+            final PDFTableRow headingRow = prepareHeadingRow();
+            for (PDFTableCell cell : headingRow.cells) {
+                cell.updateContentLayout();
+                headingHeight = Math.max(headingHeight, cell.getMinRequiredHeight());
+            }
+            headingCells = columns.size();
+        }
+        final float repeatedHeadingHeight
+                = columnHeadersMode == ColumnHeadersMode.COLUMN_HEADERS_ON_EVERY_PAGE ? headingHeight : 0;
+        final float pageRowSpace = Math.max(1f, usableHeight - repeatedHeadingHeight);
+        long pageCount = 1;
+        if (rowCount > 0) {
+            if (averageRowHeight > pageRowSpace) {
+                pageCount = (long) Math.ceil((headingHeight + averageRowHeight * rowCount) / pageRowSpace);
+            } else {
+                final long firstPageRows = (long) Math.max(0, (usableHeight - headingHeight) / averageRowHeight);
+                final long rowsPerPage = Math.max(1, (long) (pageRowSpace / averageRowHeight));
+                if (rowCount > firstPageRows) {
+                    pageCount += (rowCount - firstPageRows + rowsPerPage - 1) / rowsPerPage;
+                }
+            }
+        }
+
+        final long renderedHeadingCells
+                = columnHeadersMode == ColumnHeadersMode.COLUMN_HEADERS_ON_EVERY_PAGE
+                ? headingCells * pageCount
+                : headingCells;
+        final long outputBytes = pageCount * PAGE_OUTPUT_BYTES
+                + styles.size() * STYLE_OUTPUT_BYTES
+                + (long) ((cellCount + renderedHeadingCells) * CELL_OUTPUT_BYTES
+                        + contentChars * CHAR_OUTPUT_BYTES);
+
+        return new RenderEstimate((int) Math.min(Integer.MAX_VALUE, pageCount),
+                modelHeapBytes, layoutHeapBytes, outputBytes, sampleCount);
+    }
+
     /**
      * creates a table according to a given total width of
      * the table and sets the column's with as a pecentage
@@ -341,7 +1293,9 @@ public class PDFTable {
      * Creates a table with the given total width and fixed widths
      * for the column specified. The remainder of the space is split
      * up between the columns that have the value of constant
-     * AUTO_DETERMINE_COLUMN_WIDTH.
+     * AUTO_DETERMINE_COLUMN_WIDTH. These columns are marked as auto
+     * width, so {@link #autoFitColumns()} can fit them to the content
+     * once the rows are added.
      *
      * @param tableWidth   the total width
      * @param columnWidths the fixed widths for the columns
@@ -371,7 +1325,13 @@ public class PDFTable {
             }
         }
 
-        return new PDFTable(resultWidths);
+        final PDFTable table = new PDFTable(resultWidths);
+        for (int i = 0; i < columnWidths.length; ++i) {
+            if (columnWidths[i] == AUTO_DETERMINE_COLUMN_WIDTH) {
+                table.getColumn(i).setAutoWidth(true);
+            }
+        }
+        return table;
     }
 
     public static enum ColumnHeadersMode {
@@ -411,6 +1371,109 @@ public class PDFTable {
 
     }
 
+    /**
+     * the heading row that is repeated on every page. It is laid out
+     * once and recorded as a form xobject, so that every page just
+     * references it instead of containing the same drawing operations
+     * again and again.
+     */
+    private class RepeatedHeadingRow {
+        private final PDFTableRow row;
+        private PDFormXObject form = null;
+        private float height;
+        private boolean recordable = true;
+
+        RepeatedHeadingRow(PDFTableRow row) {
+            this.row = row;
+            for (CellRenderInfo cellInfo : createCellInfos()) {
+                height = Math.max(height, cellInfo.getHeight());
+            }
+        }
+
+        float getHeight() {
+            return height;
+        }
+
+        /**
+         * moves the position below the heading row without rendering it,
+         * like {@link #render} does if the heading row fits on the page
+         */
+        void skip(PagePosition pos, float x) {
+            pos.y -= height;
+            pos.x = x;
+        }
+
+        private List<CellRenderInfo> createCellInfos() {
+            final List<CellRenderInfo> cellInfosList = new ArrayList<>(row.cells.size());
+            for (PDFTableCell cell : row.cells) {
+                if (cell != null) {
+                    final CellRenderInfo cellInfo = new CellRenderInfo(cell);
+                    cellInfo.selectAllRows();
+                    cellInfosList.add(cellInfo);
+                }
+            }
+            return cellInfosList;
+        }
+
+        /**
+         * renders the heading row at the current position and
+         * moves the position below the heading row
+         *
+         * @param currentPage the current page
+         * @param pos the position to render at
+         * @param x the x position of the table
+         * @param renderContext the render context
+         * @return the page the heading row ended on
+         * @throws IOException
+         */
+        PDFPageWithStream render(PDFPageWithStream currentPage, PagePosition pos, float x,
+                PDFRenderContext renderContext) throws IOException {
+            if (form == null && recordable) {
+                record(renderContext, pos.y - pageSettings.getMarginBottom());
+            }
+
+            if (form == null) {
+                // heading needs to be split up, so we fall back to render it directly
+                currentPage = renderRow(currentPage, row, null, pos, x, renderContext);
+            } else {
+                Utils.drawForm(currentPage.getOrCreateStream(), form, x, pos.y - height);
+                pos.y -= height;
+            }
+            pos.x = x;
+            currentPage.setRenderedYPosition(pos.y);
+            return currentPage;
+        }
+
+        private void record(PDFRenderContext renderContext, float freeSpace) throws IOException {
+            final PDDocument document = renderContext.getDocument();
+            final List<CellRenderInfo> cellInfosList = createCellInfos();
+            float width = 0;
+            float maxLineWidth = 0;
+            for (CellRenderInfo cellInfo : cellInfosList) {
+                final PDFTableCell cell = cellInfo.cell;
+                width += cell.getWidth();
+                maxLineWidth = Math.max(maxLineWidth, Math.max(
+                        Math.max(cell.readBorderLeft().getLineWidth(), cell.readBorderRight().getLineWidth()),
+                        Math.max(cell.readBorderTop().getLineWidth(), cell.readBorderBottom().getLineWidth())));
+            }
+
+            if (height > freeSpace) {
+                recordable = false;
+                return;
+            }
+
+            final PDAppearanceStream headingForm = Utils.createForm(document, new PDRectangle(
+                    -maxLineWidth, -maxLineWidth, width + 2 * maxLineWidth, height + 2 * maxLineWidth));
+            try (PDPageContentStream stream = Utils.openFormStream(document, headingForm)) {
+                final PagePosition formPos = new PagePosition(0, height);
+                for (CellRenderInfo cellInfo : cellInfosList) {
+                    cellInfo.render(stream, formPos, height, true, true, renderContext, null);
+                }
+            }
+            this.form = headingForm;
+        }
+    }
+
     private static class CellRenderInfo {
         private final PDFTableCell cell;
         private int startRow;
@@ -434,6 +1497,18 @@ public class PDFTable {
             return false;
         }
 
+        public void selectAllRows() {
+            this.endRow = cell.getLaidoutContent().getNumRows();
+        }
+
+        public void skipRows(int rows) {
+            if (rows < 0 || rows > cell.getLaidoutContent().getNumRows()) {
+                throw new IllegalArgumentException("The checkpoint does not match the cell");
+            }
+            this.startRow = rows;
+            this.endRow = rows;
+        }
+
         public void decEndRow() {
             if (this.endRow > this.startRow + 1) {
                 this.endRow--;
@@ -451,22 +1526,137 @@ public class PDFTable {
          * @param rowMaxHeight
          * @param pageBreakBefore
          * @param forceTopBorder
+         * @param renderContext the render context
+         * @param formCache the cache for recurring cells or null
          * @throws IOException
          */
         public void render(PDPageContentStream stream, PagePosition pos,
                 float rowMaxHeight, boolean pageBreakBefore,
-                boolean forceTopBorder) throws IOException {
+                boolean forceTopBorder, PDFRenderContext renderContext,
+                CellFormCache formCache) throws IOException {
             cell.render(stream, pos.x, pos.y, startRow,
-                    endRow, rowMaxHeight, pageBreakBefore || forceTopBorder);
+                    endRow, rowMaxHeight, pageBreakBefore || forceTopBorder, renderContext, formCache);
             startRow = endRow;
 
             pos.x += cell.getWidth();
         }
 
+        /**
+         * marks the current part of the cell as rendered without rendering it
+         */
+        public void skip() {
+            startRow = endRow;
+        }
+
         public boolean isDone() {
             return startRow >= cell.getLaidoutContent().getNumRows();
         }
 
+        /**
+         * moves lines to the next page so that at least the given amount
+         * of lines is continued there, as long as one line stays
+         *
+         * @param minWidowLines the min amount of lines on the next page
+         */
+        public void keepWidows(int minWidowLines) {
+            final int remaining = cell.getLaidoutContent().getNumRows() - endRow;
+            if (remaining > 0 && remaining < minWidowLines) {
+                endRow = Math.max(startRow + 1, endRow - (minWidowLines - remaining));
+            }
+        }
+
+    }
+
+    /**
+     * the position a table is rendered at, which is kept
+     * between the batches of a table that is rendered in parts
+     */
+    final class RenderCursor {
+        private PDFPageWithStream page;
+        private final PagePosition pos;
+        private final float x;
+        private final RepeatedHeadingRow repeatedHeadingRow;
+        private final float repeatedHeadingHeight;
+        private long renderedRows = 0;
+        // lines of the cells of the next row that are already rendered
+        private int[] resumeLines = null;
+        // pages of the whole render that are not part of the render context
+        private int pageOffset = 0;
+        private int checkpointInterval = 0;
+        private CheckpointListener checkpointListener = null;
+        private int checkpointPages = 0;
+        // the cursor stops before it starts this page (counted like pages of a checkpoint)
+        private int pageLimit = Integer.MAX_VALUE;
+        private boolean complete = false;
+        // breaks the rows into pages without rendering them, the pages are only counted
+        private boolean dryRun = false;
+        private int dryRunPages = 0;
+
+        RenderCursor(PDFPageWithStream page, PagePosition pos, float x,
+                RepeatedHeadingRow repeatedHeadingRow, float repeatedHeadingHeight) {
+            this.page = page;
+            this.pos = pos;
+            this.x = x;
+            this.repeatedHeadingRow = repeatedHeadingRow;
+            this.repeatedHeadingHeight = repeatedHeadingHeight;
+        }
+
+        PDFPageWithStream getPage() {
+            return page;
+        }
+
+        long getRenderedRows() {
+            return renderedRows;
+        }
+
+        void setCheckpoints(PDFRenderContext renderContext, int pageInterval, CheckpointListener listener) {
+            this.checkpointInterval = pageInterval;
+            this.checkpointListener = listener;
+            this.checkpointPages = getPageCount(renderContext) - 1;
+        }
+
+        /**
+         * returns the amount of pages of the whole render up to the current page
+         */
+        int getPageCount(PDFRenderContext renderContext) {
+            return dryRun ? dryRunPages : pageOffset + renderContext.getPageCount();
+        }
+
+        /**
+         * called when the rows continue on a new (last) page of the
+         * render context, all previous pages are complete
+         */
+        void pageStarted(PDFRenderContext renderContext, List<CellRenderInfo> splitCells) throws IOException {
+            if (checkpointListener == null) {
+                return;
+            }
+            final int completedPages = getPageCount(renderContext) - 1;
+            if (completedPages - checkpointPages < checkpointInterval) {
+                return;
+            }
+            final int[] lines = new int[splitCells == null ? 0 : splitCells.size()];
+            for (int i = 0; i < lines.length; ++i) {
+                lines[i] = splitCells.get(i).startRow;
+            }
+            checkpointPages = completedPages;
+            checkpointListener.checkpoint(renderContext, new RenderCheckpoint(renderedRows, lines, completedPages));
+        }
+    }
+
+    /**
+     * the heights of the rows of a table that all page
+     * break decisions are made from
+     */
+    private static class RowHeights {
+        private final float[] rowHeights;
+        private final float[] orphanHeights;
+        private final float[] groupHeights;
+
+        RowHeights(int rowCount) {
+            this.rowHeights = new float[rowCount];
+            this.orphanHeights = new float[rowCount];
+            this.groupHeights = new float[rowCount];
+        }
     }
 
     private static class PagePosition {
@@ -31,6 +31,26 @@ public class PDFTableBorder {
     private Color color = Color.BLACK;
     private float lineWidth = 1;
 
+    // the sides of a border, see PDFTableColumn and PDFTableCell
+    static final int LEFT = 1;
+    static final int RIGHT = 2;
+    static final int TOP = 4;
+    static final int BOTTOM = 8;
+    static final int ALL_SIDES = LEFT | RIGHT | TOP | BOTTOM;
+
+    public PDFTableBorder() {
+    }
+
+    /**
+     * creates a copy of the given border
+     *
+     * @param border the border to copy
+     */
+    public PDFTableBorder(PDFTableBorder border) {
+        this.color = border.color;
+        this.lineWidth = border.lineWidth;
+    }
+
     public Color getColor() {
         return color;
     }
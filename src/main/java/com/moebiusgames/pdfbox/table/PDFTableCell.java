@@ -26,18 +26,20 @@ package com.moebiusgames.pdfbox.table;
 import com.moebiusgames.pdfbox.table.PDFUtils.FontModifier;
 import java.awt.Color;
 import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashSet;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Set;
+import org.apache.pdfbox.pdmodel.PDDocument;
 import org.apache.pdfbox.pdmodel.PDPageContentStream;
+import org.apache.pdfbox.pdmodel.common.PDRectangle;
 import org.apache.pdfbox.pdmodel.font.PDFont;
-import org.apache.pdfbox.pdmodel.font.PDSimpleFont;
-import org.jsoup.Jsoup;
-import org.jsoup.nodes.Document;
-import org.jsoup.nodes.Node;
+import org.apache.pdfbox.pdmodel.graphics.form.PDFormXObject;
+import org.apache.pdfbox.pdmodel.interactive.annotation.PDAppearanceStream;
 
 public class PDFTableCell {
 
@@ -50,12 +52,18 @@ public class PDFTableCell {
     private PDFont font = null;
     private Align align = null;
     private String content = "";
+    //a value that is not formatted yet, see getContent()
+    private Object value = null;
     private TextType textType = TextType.PLAIN;
+    private boolean number = false;
     private LaidoutContent laidoutContent = null;
     private PDFTableBorder borderLeft;
     private PDFTableBorder borderRight;
     private PDFTableBorder borderTop;
     private PDFTableBorder borderBottom;
+    // the sides whose borders are also referenced by a copy or the template
+    // of this cell, they are copied before they are handed out
+    private int sharedBorders = 0;
     private float paddingLeft = PDFTable.NOT_SET;
     private float paddingRight = PDFTable.NOT_SET;
     private float paddingTop = PDFTable.NOT_SET;
@@ -66,18 +74,167 @@ public class PDFTableCell {
     private Boolean underline = null;
     private final PDFTable table;
 
+    //the inputs the current layout was created with
+    private String layoutContent = null;
+    private TextType layoutTextType = null;
+    private PDFont layoutFont = null;
+    private int layoutFontSize = PDFTable.NOT_SET;
+    private float layoutTextSpaceWidth = PDFTable.NOT_SET;
+
     PDFTableCell(PDFTableRow row, int cellIndex, final PDFTable table) {
         this.table = table;
         this.row = row;
         this.index = cellIndex;
     }
 
+    /**
+     * creates a copy of the given template cell. All style objects are
+     * shared with the template and the layout of the template is carried
+     * over, so it is only recalculated if the copy changes
+     */
+    PDFTableCell(PDFTableRow row, final PDFTable table, PDFTableCell template) {
+        this(row, template.index, table);
+        this.size = template.size;
+        this.fontSize = template.fontSize;
+        this.font = template.font;
+        this.align = template.align;
+        this.content = template.content;
+        this.value = template.value;
+        this.textType = template.textType;
+        this.number = template.number;
+        this.borderLeft = template.borderLeft;
+        this.borderRight = template.borderRight;
+        this.borderTop = template.borderTop;
+        this.borderBottom = template.borderBottom;
+        this.sharedBorders = PDFTableBorder.ALL_SIDES;
+        template.sharedBorders = PDFTableBorder.ALL_SIDES;
+        this.paddingLeft = template.paddingLeft;
+        this.paddingRight = template.paddingRight;
+        this.paddingTop = template.paddingTop;
+        this.paddingBottom = template.paddingBottom;
+        this.fontColor = template.fontColor;
+        this.backgroundColor = template.backgroundColor;
+        this.lineSpacingFactor = template.lineSpacingFactor;
+        this.underline = template.underline;
+
+        template.updateContentLayout();
+        if (template.laidoutContent != null) {
+            this.laidoutContent = template.laidoutContent.copyFor(this);
+            this.layoutContent = template.layoutContent;
+            this.layoutTextType = template.layoutTextType;
+            this.layoutFont = template.layoutFont;
+            this.layoutFontSize = template.layoutFontSize;
+            this.layoutTextSpaceWidth = template.layoutTextSpaceWidth;
+        }
+    }
+
     public PDFTableCell setContent(String content) {
         this.content = content;
+        this.value = null;
+        this.number = false;
         return this;
     }
 
+    /**
+     * sets a value as content that is formatted with the value formatter
+     * of the column (see {@link PDFTableColumn#setValueFormatter(ValueFormatter)})
+     * as soon as the text of this cell is needed. The formatted text is
+     * laid out with the text type of this cell, so a formatter may return
+     * HTML for a cell of type {@link TextType#HTML}. Numbers are laid out
+     * like {@link #setNumber(long) number cells}.
+     *
+     * @param value the value, null for an empty cell
+     * @return this cell
+     */
+    public PDFTableCell setValue(Object value) {
+        this.value = value;
+        this.content = null;
+        this.number = value instanceof Number;
+        return this;
+    }
+
+    /**
+     * returns the value set with {@link #setValue(Object)}
+     * or null if the cell has a text content
+     *
+     * @return the value or null
+     */
+    public Object getValue() {
+        return value;
+    }
+
+    /**
+     * returns the length of the text of this cell or -1 if
+     * it is a value that is not formatted yet
+     */
+    int getFormattedContentLength() {
+        return content == null ? -1 : content.length();
+    }
+
+    /**
+     * sets a number as content, formatted with the number format of the
+     * column. Numbers are laid out as a single line without any word
+     * breaking (as long as they fit into the cell) and are right aligned
+     * unless the cell has an align of its own.
+     *
+     * @param number the number
+     * @return this cell
+     */
+    public PDFTableCell setNumber(long number) {
+        return setNumberContent(table.getColumn(index).formatNumber(number));
+    }
+
+    /**
+     * sets a number as content, see {@link #setNumber(long)}
+     *
+     * @param number the number
+     * @return this cell
+     */
+    public PDFTableCell setNumber(double number) {
+        return setNumberContent(table.getColumn(index).formatNumber(number));
+    }
+
+    /**
+     * sets a number as content, see {@link #setNumber(long)}
+     *
+     * @param number the number
+     * @return this cell
+     */
+    public PDFTableCell setNumber(BigDecimal number) {
+        if (number == null) {
+            throw new IllegalArgumentException("null is not allowed");
+        }
+        return setNumberContent(table.getColumn(index).formatNumber(number));
+    }
+
+    PDFTableCell setNumberContent(String formattedNumber) {
+        this.content = formattedNumber;
+        this.value = null;
+        this.textType = TextType.PLAIN;
+        this.number = true;
+        return this;
+    }
+
+    /**
+     * returns true if the content of this cell was set as number
+     *
+     * @return true for numbers
+     */
+    public boolean isNumber() {
+        return number;
+    }
+
+    /**
+     * returns the text of this cell, a value that was set with
+     * {@link #setValue(Object)} is formatted when this is called
+     * for the first time
+     *
+     * @return the text
+     */
     public String getContent() {
+        if (content == null) {
+            content = table.getColumn(index).formatValue(value);
+        }
         return content;
     }
 
@@ -122,6 +279,19 @@ public class PDFTableCell {
         return this;
     }
 
+    /**
+     * sets the TrueType font of the given file, see
+     * {@link FontRepository#getFont(PDDocument, Path)}
+     *
+     * @param document the document the cell is rendered to
+     * @param fontFile the TrueType font file
+     * @return this cell
+     * @throws IOException
+     */
+    public PDFTableCell setFont(PDDocument document, Path fontFile) throws IOException {
+        return setFont(FontRepository.getShared().getFont(document, fontFile));
+    }
+
     public PDFTableCell setFontSize(int fontSize) {
         if (fontSize <= 0 && fontSize != PDFTable.NOT_SET) {
             throw new IllegalArgumentException("font size must be positive");
@@ -148,23 +318,58 @@ public class PDFTableCell {
     }
 
     public PDFTableBorder getBorderLeft() {
+        if (borderLeft == null) {
+            return table.getColumn(index).getBorderLeft();
+        }
+        if (unshareBorder(PDFTableBorder.LEFT)) {
+            borderLeft = new PDFTableBorder(borderLeft);
+        }
+        return this.borderLeft;
+    }
+
+    /**
+     * returns the border without copying it if it is shared,
+     * so it must not be modified
+     */
+    PDFTableBorder readBorderLeft() {
         return borderLeft == null
-                ? table.getColumn(index).getBorderLeft()
+                ? table.getColumn(index).readBorderLeft()
                 : this.borderLeft;
     }
 
+    private boolean unshareBorder(int side) {
+        final boolean shared = (sharedBorders & side) != 0;
+        sharedBorders &= ~side;
+        return shared;
+    }
+
     public boolean hasBorderLeft() {
         return this.borderLeft != null;
     }
 
     public PDFTableCell setBorderLeft(PDFTableBorder borderLeft) {
         this.borderLeft = borderLeft;
+        this.sharedBorders &= ~PDFTableBorder.LEFT;
         return this;
     }
 
     public PDFTableBorder getBorderRight() {
+        if (borderRight == null) {
+            return table.getColumn(index).getBorderRight();
+        }
+        if (unshareBorder(PDFTableBorder.RIGHT)) {
+            borderRight = new PDFTableBorder(borderRight);
+        }
+        return this.borderRight;
+    }
+
+    /**
+     * returns the border without copying it if it is shared,
+     * so it must not be modified
+     */
+    PDFTableBorder readBorderRight() {
         return borderRight == null
-                ? table.getColumn(index).getBorderRight()
+                ? table.getColumn(index).readBorderRight()
                 : this.borderRight;
     }
 
@@ -174,12 +379,27 @@ public class PDFTableCell {
 
     public PDFTableCell setBorderRight(PDFTableBorder borderRight) {
         this.borderRight = borderRight;
+        this.sharedBorders &= ~PDFTableBorder.RIGHT;
         return this;
     }
 
     public PDFTableBorder getBorderTop() {
+        if (borderTop == null) {
+            return table.getColumn(index).getBorderTop();
+        }
+        if (unshareBorder(PDFTableBorder.TOP)) {
+            borderTop = new PDFTableBorder(borderTop);
+        }
+        return this.borderTop;
+    }
+
+    /**
+     * returns the border without copying it if it is shared,
+     * so it must not be modified
+     */
+    PDFTableBorder readBorderTop() {
         return borderTop == null
-                ? table.getColumn(index).getBorderTop()
+                ? table.getColumn(index).readBorderTop()
                 : this.borderTop;
     }
 
@@ -189,12 +409,27 @@ public class PDFTableCell {
 
     public PDFTableCell setBorderTop(PDFTableBorder borderTop) {
         this.borderTop = borderTop;
+        this.sharedBorders &= ~PDFTableBorder.TOP;
         return this;
     }
 
     public PDFTableBorder getBorderBottom() {
+        if (borderBottom == null) {
+            return table.getColumn(index).getBorderBottom();
+        }
+        if (unshareBorder(PDFTableBorder.BOTTOM)) {
+            borderBottom = new PDFTableBorder(borderBottom);
+        }
+        return this.borderBottom;
+    }
+
+    /**
+     * returns the border without copying it if it is shared,
+     * so it must not be modified
+     */
+    PDFTableBorder readBorderBottom() {
         return borderBottom == null
-                ? table.getColumn(index).getBorderBottom()
+                ? table.getColumn(index).readBorderBottom()
                 : this.borderBottom;
     }
 
@@ -204,6 +439,7 @@ public class PDFTableCell {
 
     public PDFTableCell setBorderBottom(PDFTableBorder borderBottom) {
         this.borderBottom = borderBottom;
+        this.sharedBorders &= ~PDFTableBorder.BOTTOM;
         return this;
     }
 
@@ -399,131 +635,136 @@ public class PDFTableCell {
         return laidoutContent.getHeight();
     }
 
+    /**
+     * lays out the content of this cell if the content or any property
+     * that influences the line breaking changed since the last layout
+     */
     void updateContentLayout() {
+        final PDFont currentFont = getFont();
+        final int currentFontSize = getFontSize();
+        final float currentTextSpaceWidth = getTextSpaceWidth();
+        final String currentContent = getContent();
+        if (laidoutContent != null
+                && currentContent.equals(layoutContent)
+                && textType == layoutTextType
+                && currentFont == layoutFont
+                && currentFontSize == layoutFontSize
+                && currentTextSpaceWidth == layoutTextSpaceWidth) {
+            return;
+        }
+
         switch (this.textType) {
             case PLAIN:
-                this.laidoutContent = layoutPlainContent(this.content);
+                this.laidoutContent = number
+                        ? layoutNumberContent(currentContent)
+                        : layoutPlainContent(currentContent);
                 break;
             case HTML:
-                this.laidoutContent = layoutHTMLContent(this.content);
+                this.laidoutContent = layoutHTMLContent(currentContent);
                 break;
         }
+        this.layoutContent = currentContent;
+        this.layoutTextType = textType;
+        this.layoutFont = currentFont;
+        this.layoutFontSize = currentFontSize;
+        this.layoutTextSpaceWidth = currentTextSpaceWidth;
     }
 
     LaidoutContent getLaidoutContent() {
         return laidoutContent;
     }
 
+    /**
+     * returns a rough estimate of the heap retained by the current layout
+     * of this cell (compressed oops assumed)
+     */
+    long estimateLayoutHeapBytes() {
+        if (laidoutContent == null) {
+            return 0;
+        }
+        long bytes = 56;
+        for (LaidoutContentRow aRow : laidoutContent.rows) {
+            bytes += 56 + 4 * aRow.getBlocks().size();
+            for (LaidoutContentBlock block : aRow.getBlocks()) {
+                bytes += 48 + 40 + block.getContent().length();
+            }
+        }
+        return bytes;
+    }
+
+    /**
+     * returns the text of this cell as it would be laid out (without any
+     * HTML markup and with filtered chars) with hard line breaks as \n.
+     * This is used to measure the content without laying it out.
+     */
+    String getMeasurableText() {
+        if (textType == TextType.PLAIN) {
+            return filterPDFContent(getContent());
+        }
+        final StringBuilder sb = new StringBuilder();
+        for (HTMLStyleRuns.Run run : HTMLStyleRunCache.getShared().get(getContent()).getRuns()) {
+            if (run.getKind() == HTMLStyleRuns.Kind.TEXT) {
+                sb.append(filterPDFContent(run.getText()));
+            } else {
+                sb.append('\n');
+            }
+        }
+        return sb.toString();
+    }
+
     private LaidoutContent layoutPlainContent(String aContent) {
         LaidoutContent aLaidoutContent = new LaidoutContent();
         plainContentToBlocks(aContent, aLaidoutContent);
         return aLaidoutContent;
     }
 
+    /**
+     * lays out a number as one line, which saves all the word
+     * breaking of plain content. Numbers that don't fit into
+     * the cell are laid out as plain content.
+     */
+    private LaidoutContent layoutNumberContent(String aContent) {
+        final String text = filterPDFContent(aContent);
+        if (text.indexOf('\n') >= 0 || text.contains("  ")
+                || GlyphWidths.of(getFont()).getWidth(text, getFontSize()) > getTextSpaceWidth()) {
+            return layoutPlainContent(aContent);
+        }
+        final LaidoutContent aLaidoutContent = new LaidoutContent();
+        final LaidoutContentBlock block = new LaidoutContentBlock(new LayoutFrame());
+        block.setContent(text);
+        aLaidoutContent.getCurrentRow().addBlock(block);
+        return aLaidoutContent;
+    }
+
     private LaidoutContent layoutHTMLContent(String aContent) {
-        final Document document = Jsoup.parse(aContent);
+        final HTMLStyleRuns styleRuns = HTMLStyleRunCache.getShared().get(aContent);
 
         LaidoutContent newLaidoutContent = new LaidoutContent();
-        traverseHTMLLayout(newLaidoutContent, new Pos(), new LayoutFrame(),
-                new NewLineLayout(), null, document.body());
-        newLaidoutContent.trim();
-
-        return newLaidoutContent;
-    }
-
-    private void traverseHTMLLayout(LaidoutContent laidoutContent, Pos xPos, LayoutFrame inFrame,
-            NewLineLayout newLineLayout, Node predecessorNode, Node node) {
-        LayoutFrame frame = new LayoutFrame(inFrame);
-
-        if (predecessorNode != null) {
-            switch (predecessorNode.nodeName().toLowerCase()) {
-                case "ul":
-                case "blockquote":
-                    //only add new line when this is
-                    //after <ul> but also not still within
-                    //another <ul> tag! This results in
-                    //a new line after the last </ul>
-                    if (frame.indent == 0) {
-                        newLineLayout.newLines++;
-                    }
+        final Pos xPos = new Pos();
+        final NewLineLayout newLineLayout = new NewLineLayout();
+        for (HTMLStyleRuns.Run run : styleRuns.getRuns()) {
+            switch (run.getKind()) {
+                case NEW_LINES:
+                    newLineLayout.newLines += run.getAmount();
+                    break;
+                case CONDITIONAL_NEW_LINES:
+                    newLineLayout.setConditionalNewLine(run.getAmount());
+                    break;
+                case LINE_BREAK:
+                    final LayoutFrame frame = run.copyFrame();
+                    applyNewLineLayout(newLineLayout, newLaidoutContent, xPos, frame);
+                    newLaidoutContent.addRow(frame);
+                    xPos.pos = 0;
+                    break;
+                case TEXT:
+                    htmlContentToBlocks(filterPDFContent(run.getText()),
+                            newLaidoutContent, xPos, run.copyFrame(), newLineLayout);
                     break;
             }
         }
+        newLaidoutContent.trim();
 
-        switch (node.nodeName().toLowerCase()) {
-            case "div":
-            case "p":
-                newLineLayout.setConditionalNewLine(1);
-                break;
-            case "br":
-                applyNewLineLayout(newLineLayout, laidoutContent, xPos, frame);
-                laidoutContent.addRow(frame);
-                xPos.pos = 0;
-                break;
-            case "blockquote":
-                //add newline in front of blockquote
-                //if there is not already one
-                if (frame.indent == 0) {
-                    newLineLayout.setConditionalNewLine(2);
-                }
-                frame.indent++;
-                break;
-            case "b":
-            case "strong":
-                frame.bold = true;
-                break;
-            case "i":
-                frame.italic = true;
-                break;
-            case "u":
-                frame.underline = true;
-                break;
-            case "font":
-                if (node.hasAttr("size")) {
-                    try {
-                        frame.htmlSize = Integer.valueOf(node.attr("size"));
-                    } catch (NumberFormatException e) {
-                        //ignore for now
-                    }
-                }
-                if (node.hasAttr("color")) {
-                    frame.color = Utils.htmlColorToColor(node.attr("color"));
-                }
-                break;
-            case "span":
-                if (node.hasAttr("style")) {
-                    if(node.attr("style").contains("color")) {
-                     String style = node.attr("style").replaceAll("\\s", "");
-                     String color = style.substring(style.indexOf("color:") + 6);
-                     color = color.substring(0, color.indexOf(";"));
-
-                     frame.color = Utils.htmlColorToColor(color);
-                    }
-                }
-                break;
-            case "ul":
-                //if this is the first <ul>, we add an empty line
-                newLineLayout.setConditionalNewLine(frame.indent == 0 ? 2 : 1);
-                frame.indent++;
-                break;
-            case "li":
-                frame.bulletPoint = true;
-                newLineLayout.setConditionalNewLine(1);
-                break;
-        }
-        if (node.nodeName().equals("#text")) {
-            htmlContentToBlocks(htmlToText(node.outerHtml()),
-                    laidoutContent, xPos, frame, newLineLayout);
-        }
-
-        //need to use the nodes copy here as (for some reason) the "normal" child's first
-        //#text node contains a newline character in front of it.
-        final List<Node> childNodes = node.childNodesCopy();
-        for (int i = 0; i < childNodes.size(); ++i) {
-            final Node aNode = childNodes.get(i);
-            final Node aPredecessorNode = i > 0 ? childNodes.get(i - 1) : null;
-            traverseHTMLLayout(laidoutContent, xPos, frame, newLineLayout, aPredecessorNode, aNode);
-        }
+        return newLaidoutContent;
     }
 
     private void plainContentToBlocks(String aContent, LaidoutContent laidoutContent) {
@@ -673,10 +914,67 @@ public class PDFTableCell {
     }
 
     void render(PDPageContentStream stream, float x, float y, int laidOutRowIndexFrom,
-            int laidOutRowIndexTo, float rowHeight, boolean pageBreakBefore) throws IOException {
+            int laidOutRowIndexTo, float rowHeight, boolean pageBreakBefore,
+            PDFRenderContext renderContext, CellFormCache formCache) throws IOException {
+        if (formCache != null && isFormCacheable(laidOutRowIndexFrom, laidOutRowIndexTo)) {
+            final CellFormCache.Key key = new CellFormCache.Key(this, getEffectiveAlign(), rowHeight);
+            PDFormXObject form = formCache.get(key);
+            if (form == null && formCache.admit(key)) {
+                form = recordForm(formCache.getDocument(), rowHeight, renderContext);
+                formCache.put(key, form);
+            }
+            if (form != null) {
+                //the background never overlaps the borders, so we can draw
+                //the borders first and then background and text from the form
+                renderBorders(stream, x, y, rowHeight, pageBreakBefore);
+                Utils.drawForm(stream, form, x, y - rowHeight);
+                return;
+            }
+        }
         renderBackground(stream, x, y, rowHeight);
         renderBorders(stream, x, y, rowHeight, pageBreakBefore);
-        renderText(stream, x, y, laidOutRowIndexFrom, laidOutRowIndexTo);
+        renderText(stream, x, y, laidOutRowIndexFrom, laidOutRowIndexTo, renderContext);
+    }
+
+    /**
+     * a cell can only be placed as a form if it is rendered as a whole
+     * and if its text does not exceed the width of the cell (which would
+     * be clipped by the form otherwise)
+     */
+    private boolean isFormCacheable(int laidOutRowIndexFrom, int laidOutRowIndexTo) {
+        if (laidOutRowIndexFrom != 0 || laidOutRowIndexTo != laidoutContent.getNumRows()) {
+            return false;
+        }
+        final float textSpaceWidth = getTextSpaceWidth();
+        for (LaidoutContentRow aRow : laidoutContent.rows) {
+            final float indent = aRow.getBlocks().isEmpty()
+                    ? 0
+                    : aRow.getBlocks().get(0).getIndent() * INDENT_WIDTH;
+            if (indent + aRow.getWidth() > textSpaceWidth) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private PDFormXObject recordForm(PDDocument document, float rowHeight,
+            PDFRenderContext renderContext) throws IOException {
+        //the form's origin is the bottom left corner of the cell, text may
+        //exceed the cell vertically so we don't clip there
+        final PDAppearanceStream form = Utils.createForm(document,
+                new PDRectangle(0, -rowHeight, getWidth(), 3 * rowHeight));
+        try (PDPageContentStream formStream = Utils.openFormStream(document, form)) {
+            renderBackground(formStream, 0, rowHeight, rowHeight);
+            renderText(formStream, 0, rowHeight, 0, laidoutContent.getNumRows(), renderContext);
+        }
+        return form;
+    }
+
+    private Align getEffectiveAlign() {
+        if (align != null) {
+            return align;
+        }
+        return number ? Align.RIGHT : table.getColumn(this.index).getAlign();
     }
 
     private void renderBackground(PDPageContentStream stream, float x, float y, float rowHeight) throws IOException {
@@ -684,35 +982,36 @@ public class PDFTableCell {
         if (colorBackground != null && colorBackground.getAlpha() > 0) {
             stream.setNonStrokingColor(colorBackground);
             stream.setLineWidth(0);
-            stream.addRect(x + getBorderLeft().getLineWidth() / 2f, y - rowHeight + getBorderBottom().getLineWidth() / 2f,
-                    getWidth() - (getBorderLeft().getLineWidth() + getBorderRight().getLineWidth()) / 2f,
-                    rowHeight - (getBorderBottom().getLineWidth() + getBorderTop().getLineWidth()) / 2f
+            stream.addRect(x + readBorderLeft().getLineWidth() / 2f, y - rowHeight + readBorderBottom().getLineWidth() / 2f,
+                    getWidth() - (readBorderLeft().getLineWidth() + readBorderRight().getLineWidth()) / 2f,
+                    rowHeight - (readBorderBottom().getLineWidth() + readBorderTop().getLineWidth()) / 2f
             );
             stream.fill();
         }
     }
 
     private void renderBorders(PDPageContentStream stream, float x, float y, float rowHeight, boolean pageBreakBefore) throws IOException {
-        //only draw top border if we are the top most cell
-        if (this.row.getIndex() == 0 || pageBreakBefore) {
-            this.getBorderTop().render(stream, x, y, x + getWidth(), y);
+        //only draw top border if we are the top most cell, the first cell of
+        //appended rows draws its own top border over the previous bottom border
+        if ((this.row.getIndex() == 0 && (!table.isContinued() || hasBorderTop())) || pageBreakBefore) {
+            this.readBorderTop().render(stream, x, y, x + getWidth(), y);
         }
         //only draw left border if we are the left most cell
         if (this.index == 0) {
-            this.getBorderLeft().render(stream, x, y - rowHeight, x, y);
+            this.readBorderLeft().render(stream, x, y - rowHeight, x, y);
         }
         //so only if we don't have a custom border right but
         //our neighbor to the right has one then we use
         //their border to draw the right border
-        PDFTableBorder rightBorder = getBorderRight();
+        PDFTableBorder rightBorder = readBorderRight();
         if (!hasBorderRight() && this.index + 1 < row.cells.size() && row.getCell(index + 1) != null && row.getCell(index + 1).hasBorderLeft()) {
-            rightBorder = row.getCell(index + 1).getBorderLeft();
+            rightBorder = row.getCell(index + 1).readBorderLeft();
         }
         rightBorder.render(stream, x + getWidth(), y - rowHeight, x + getWidth(), y);
         //same goes for the bottom border
         float lastWidth = x;
         for (int i = 0; i < this.getSize(); ++i) {
-            PDFTableBorder bottomBorder = getBorderBottom();
+            PDFTableBorder bottomBorder = readBorderBottom();
             if (!hasBorderBottom() && this.row.getIndex() + 1 < table.getRows()) {
                 //                        && rows.get(this.row.index + 1).getCell(index + i) != null
                 //                        && rows.get(this.row.index + 1).getCell(index + i).hasBorderTop()) {
@@ -722,7 +1021,7 @@ public class PDFTableCell {
                     bottomRowColIndex--;
                 }
                 if (bottomRow.getCell(bottomRowColIndex) != null) {
-                    bottomBorder = bottomRow.getCell(bottomRowColIndex).getBorderTop();
+                    bottomBorder = bottomRow.getCell(bottomRowColIndex).readBorderTop();
                 }
             }
             bottomBorder.render(stream, lastWidth, y - rowHeight, lastWidth + getWidth(i), y - rowHeight);
@@ -730,10 +1029,15 @@ public class PDFTableCell {
         }
     }
 
+    /**
+     * renders the text, the fonts are replaced by the instances of
+     * the document of the render context (if any)
+     */
     private void renderText(PDPageContentStream stream, float x, float y,
-            int laidOutRowIndexFrom, int laidOutRowIndexTo) throws IOException {
+            int laidOutRowIndexFrom, int laidOutRowIndexTo,
+            PDFRenderContext renderContext) throws IOException {
 
-        final Align currentAlign = align == null ? table.getColumn(this.index).getAlign() : align;
+        final Align currentAlign = getEffectiveAlign();
         if (getTextType() == TextType.HTML && currentAlign == Align.RIGHT) {
             throw new UnsupportedOperationException("Can't use align right with HTML content");
         }
@@ -780,8 +1084,18 @@ public class PDFTableCell {
                     }
                 }
 
+                if (block.getBackgroundColor() != null) {
+                    stream.setNonStrokingColor(block.getBackgroundColor());
+                    stream.addRect(x + getPaddingLeft() + offsetX + rowShiftX,
+                            y - getPaddingTop() + offsetY + aRow.getMaxFontCapHeight() + yOffsetHalf - aRow.getMaxHeight(),
+                            block.getWidth(), aRow.getMaxHeight());
+                    stream.fill();
+                }
+
                 stream.setNonStrokingColor(block.getFontColor());
-                stream.setFont(block.getFont(), block.getFontSize());
+                stream.setFont(renderContext == null
+                        ? block.getFont()
+                        : renderContext.getDocumentFont(block.getFont()), block.getFontSize());
 
                 final float leading = Utils.getFontHeight(block.getFont(), block.getFontSize())
                         * (1.0f + getLineSpacingFactor());
@@ -799,8 +1113,7 @@ public class PDFTableCell {
                     float tx = x + getPaddingLeft() + offsetX + rowShiftX;
                     float ty = y - getPaddingTop() + offsetY;
 
-                    float stringWidth = block.getFontSize() * block.getFont().getStringWidth(block.getContent()) / 1000;
-                    float lineEndPoint = tx + stringWidth;
+                    float lineEndPoint = tx + block.getWidth();
 
                     stream.setLineWidth(1);
                     stream.moveTo(tx, ty - 2);
@@ -821,29 +1134,6 @@ public class PDFTableCell {
 
     }
 
-    /**
-     * decodes all special entities from html to plain text
-     * and also does not trim the text
-     *
-     * @param html the html
-     * @return returns decoded html
-     */
-    private String htmlToText(String html) {
-        StringBuilder sb = new StringBuilder();
-        sb.append(Jsoup.parse(html).text());
-
-        //add possibly removed " " from both sides
-        if (!html.isEmpty()) {
-            for (int i = 0; i < html.length() && html.charAt(i) == ' '; ++i) {
-                sb.insert(0, ' ');
-            }
-            for (int i = html.length() - 1; i >= 0 && html.charAt(i) == ' '; --i) {
-                sb.append(' ');
-            }
-        }
-        return filterPDFContent(sb.toString());
-    }
-
     /**
      * filters out all characters for which the current font
      * does not have characters for and therefore would throw
@@ -853,24 +1143,23 @@ public class PDFTableCell {
      * @return the filtered content
      */
     private String filterPDFContent(String content) {
-        //we only need to filter decendents of PDSimpleFont
-        //as they are the only ones not capable of rendering
-        //all unicode chars. The PDType0Fonts won't throw
-        //an exception even if they don't have the char
-        //but just utter a warning.
-        final PDFont currentFont = getFont();
-        if (currentFont instanceof PDSimpleFont) {
-            final StringBuilder sb = new StringBuilder();
-            final PDSimpleFont simpleFont = (PDSimpleFont) currentFont;
-            for (char c : content.toCharArray()) {
-                final String name = simpleFont.getGlyphList().codePointToName(c);
-                if (simpleFont.getEncoding().contains(name)) {
-                    sb.append(c);
-                }
+        final GlyphWidths glyphs = GlyphWidths.of(getFont());
+        int i = 0;
+        while (i < content.length() && glyphs.isRenderable(content.charAt(i))) {
+            i++;
+        }
+        if (i == content.length()) {
+            return content;
+        }
+        final StringBuilder sb = new StringBuilder(content.length());
+        sb.append(content, 0, i);
+        for (; i < content.length(); ++i) {
+            final char c = content.charAt(i);
+            if (glyphs.isRenderable(c)) {
+                sb.append(c);
             }
-            return sb.toString();
         }
-        return content;
+        return sb.toString();
     }
 
     class LaidoutContent {
@@ -880,6 +1169,29 @@ public class PDFTableCell {
             this.rows.add(new LaidoutContentRow());
         }
 
+        private LaidoutContent(List<LaidoutContentRow> rows) {
+            this.rows.addAll(rows);
+        }
+
+        /**
+         * copies this layout for the given cell, which needs to have
+         * the same content and font settings
+         *
+         * @param cell the cell the copy belongs to
+         * @return the copy
+         */
+        LaidoutContent copyFor(PDFTableCell cell) {
+            final List<LaidoutContentRow> copiedRows = new ArrayList<>(rows.size());
+            for (LaidoutContentRow aRow : rows) {
+                final LaidoutContentRow copiedRow = cell.new LaidoutContentRow();
+                for (LaidoutContentBlock block : aRow.getBlocks()) {
+                    copiedRow.addBlock(cell.new LaidoutContentBlock(block));
+                }
+                copiedRows.add(copiedRow);
+            }
+            return cell.new LaidoutContent(copiedRows);
+        }
+
         public LaidoutContentRow getCurrentRow() {
             return rows.get(rows.size() - 1);
         }
@@ -1045,6 +1357,7 @@ public class PDFTableCell {
         private PDFont font = null; //not set
         private Integer fontSize = null; //not set
         private Color fontColor = null; //not set
+        private Color backgroundColor = null; //not set
         private int indent = 0;
         private Boolean underline = false;
 
@@ -1066,12 +1379,26 @@ public class PDFTableCell {
             }
 
             this.fontColor = fromFrame.color;
+            this.backgroundColor = fromFrame.backgroundColor;
 
-            if (fromFrame.htmlSize != null) {
+            if (fromFrame.fontSize != null) {
+                this.fontSize = fromFrame.fontSize;
+            } else if (fromFrame.htmlSize != null) {
                 this.fontSize = Math.max(1, PDFTableCell.this.getFontSize() + (fromFrame.htmlSize - 4) * 2);
             }
         }
 
+        public LaidoutContentBlock(LaidoutContentBlock block) {
+            this.content = block.content;
+            this.bulletPoint = block.bulletPoint;
+            this.font = block.font;
+            this.fontSize = block.fontSize;
+            this.fontColor = block.fontColor;
+            this.backgroundColor = block.backgroundColor;
+            this.indent = block.indent;
+            this.underline = block.underline;
+        }
+
         public void setContent(String content) {
             this.content = content;
         }
@@ -1110,6 +1437,15 @@ public class PDFTableCell {
                     : this.fontColor;
         }
 
+        /**
+         * returns the background color of just this block
+         * or null if the block has no own background
+         * @return
+         */
+        public Color getBackgroundColor() {
+            return backgroundColor;
+        }
+
         public Boolean getUnderline() {
             return this.underline == null
                     ? PDFTableCell.this.getUnderline()
@@ -1155,30 +1491,6 @@ public class PDFTableCell {
         private float pos;
     }
 
-    private static class LayoutFrame {
-        private int indent = 0;
-        private boolean bulletPoint = false;
-        private Color color = null;
-        private Integer htmlSize = null;
-        private Boolean bold = null;
-        private Boolean italic = null;
-        private Boolean underline = null;
-
-        public LayoutFrame() {
-        }
-
-        public LayoutFrame(LayoutFrame frame) {
-            this.indent = frame.indent;
-            this.bulletPoint = frame.bulletPoint;
-            this.color = frame.color;
-            this.htmlSize = frame.htmlSize;
-            this.bold = frame.bold;
-            this.italic = frame.italic;
-            this.underline = frame.underline;
-        }
-
-    }
-
     private static class NewLineLayout {
         private int newLines = 0;
         private int conditionalNewlines = 0;
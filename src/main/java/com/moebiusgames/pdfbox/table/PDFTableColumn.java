@@ -24,8 +24,13 @@
 package com.moebiusgames.pdfbox.table;
 
 import java.awt.Color;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.text.DecimalFormat;
+import java.text.NumberFormat;
+import org.apache.pdfbox.pdmodel.PDDocument;
 import org.apache.pdfbox.pdmodel.font.PDFont;
-import org.apache.pdfbox.pdmodel.font.PDType1Font;
 import org.apache.pdfbox.pdmodel.font.Standard14Fonts;
 
 
@@ -41,20 +46,27 @@ import org.apache.pdfbox.pdmodel.font.Standard14Fonts;
 public class PDFTableColumn {
 
     private int fontSize = 10;
-    private PDFont font = new PDType1Font(Standard14Fonts.FontName.HELVETICA);
+    private PDFont font;
     private Align align = Align.LEFT;
+    private NumberFormat numberFormat = null;
+    private ValueFormatter valueFormatter = null;
+    private FormattedValueCache formattedValues = null;
 
     private Integer headingFontSize = null;
-    private PDFont headingFont = new PDType1Font(Standard14Fonts.FontName.HELVETICA_BOLD);
+    private PDFont headingFont;
     private Align headingAlign = null;
     private Color headingFontColor = null;
     private Color headingBackgroundColor = null;
 
-    private final float width;
-    private PDFTableBorder borderLeft = new PDFTableBorder();
-    private PDFTableBorder borderRight = new PDFTableBorder();
-    private PDFTableBorder borderTop = new PDFTableBorder();
-    private PDFTableBorder borderBottom = new PDFTableBorder();
+    private float width;
+    private boolean autoWidth = false;
+    private PDFTableBorder borderLeft;
+    private PDFTableBorder borderRight;
+    private PDFTableBorder borderTop;
+    private PDFTableBorder borderBottom;
+    // the sides whose borders are also referenced by a copy or the template
+    // of this column, they are copied before they are handed out
+    private int sharedBorders = 0;
 
     private float paddingLeft = 4;
     private float paddingRight = 4;
@@ -68,8 +80,65 @@ public class PDFTableColumn {
     // private final PDFTable table;
 
     PDFTableColumn(final PDFTable table, float width) {
+        this(width, PDFUtils.getStandardFont(Standard14Fonts.FontName.HELVETICA),
+                PDFUtils.getStandardFont(Standard14Fonts.FontName.HELVETICA_BOLD),
+                new PDFTableBorder(), new PDFTableBorder(), new PDFTableBorder(), new PDFTableBorder());
+    }
+
+    /**
+     * creates a column without a heading font of its own (the heading
+     * uses the normal font) that uses the given border on all sides
+     */
+    PDFTableColumn(final PDFTable table, float width, PDFTableBorder border) {
+        this(width, PDFUtils.getStandardFont(Standard14Fonts.FontName.HELVETICA), null,
+                border, border, border, border);
+    }
+
+    private PDFTableColumn(float width, PDFont font, PDFont headingFont, PDFTableBorder borderLeft,
+            PDFTableBorder borderRight, PDFTableBorder borderTop, PDFTableBorder borderBottom) {
         // this.table = table;
         this.width = width;
+        this.font = font;
+        this.headingFont = headingFont;
+        this.borderLeft = borderLeft;
+        this.borderRight = borderRight;
+        this.borderTop = borderTop;
+        this.borderBottom = borderBottom;
+    }
+
+    /**
+     * creates a copy of the given template column. All style objects
+     * are shared with the template, a shared border is copied by the
+     * column that hands it out first (copy on write).
+     */
+    PDFTableColumn(final PDFTable table, PDFTableColumn template) {
+        this(template.width, template.font, template.headingFont,
+                template.borderLeft, template.borderRight, template.borderTop, template.borderBottom);
+        this.sharedBorders = PDFTableBorder.ALL_SIDES;
+        template.sharedBorders = PDFTableBorder.ALL_SIDES;
+        this.fontSize = template.fontSize;
+        this.align = template.align;
+        //number formats are not thread safe, but tables created
+        //from the same template may be filled in parallel
+        this.numberFormat = template.numberFormat == null
+                ? null
+                : (NumberFormat) template.numberFormat.clone();
+        this.valueFormatter = template.valueFormatter;
+        this.formattedValues = template.formattedValues;
+        this.headingFontSize = template.headingFontSize;
+        this.headingAlign = template.headingAlign;
+        this.headingFontColor = template.headingFontColor;
+        this.headingBackgroundColor = template.headingBackgroundColor;
+        this.paddingLeft = template.paddingLeft;
+        this.paddingRight = template.paddingRight;
+        this.paddingTop = template.paddingTop;
+        this.paddingBottom = template.paddingBottom;
+        this.fontColor = template.fontColor;
+        this.backgroundColor = template.backgroundColor;
+        this.lineSpacingFactor = template.lineSpacingFactor;
+        this.heading = template.heading;
+        this.underline = template.underline;
+        this.autoWidth = template.autoWidth;
     }
 
     public String getHeading() {
@@ -102,6 +171,19 @@ public class PDFTableColumn {
         return this;
     }
 
+    /**
+     * sets the TrueType font of the given file, see
+     * {@link FontRepository#getFont(PDDocument, Path)}
+     *
+     * @param document the document the table is rendered to
+     * @param fontFile the TrueType font file
+     * @return this column
+     * @throws IOException
+     */
+    public PDFTableColumn setFont(PDDocument document, Path fontFile) throws IOException {
+        return setFont(FontRepository.getShared().getFont(document, fontFile));
+    }
+
     public Align getAlign() {
         return align;
     }
@@ -111,6 +193,93 @@ public class PDFTableColumn {
         return this;
     }
 
+    public NumberFormat getNumberFormat() {
+        return numberFormat;
+    }
+
+    /**
+     * sets the format of the numbers that are set with
+     * {@link PDFTableCell#setNumber(long)} and its overloads or
+     * null to write them plain
+     *
+     * @param numberFormat the format or null
+     * @return this object for chaining
+     */
+    public PDFTableColumn setNumberFormat(NumberFormat numberFormat) {
+        this.numberFormat = numberFormat;
+        return this;
+    }
+
+    /**
+     * sets the number format by its pattern, see {@link DecimalFormat}
+     *
+     * @param pattern the pattern
+     * @return this object for chaining
+     */
+    public PDFTableColumn setNumberFormat(String pattern) {
+        if (pattern == null) {
+            throw new IllegalArgumentException("null is not allowed");
+        }
+        return setNumberFormat(new DecimalFormat(pattern));
+    }
+
+    String formatNumber(long number) {
+        return numberFormat == null ? Long.toString(number) : numberFormat.format(number);
+    }
+
+    String formatNumber(double number) {
+        return numberFormat == null ? Double.toString(number) : numberFormat.format(number);
+    }
+
+    String formatNumber(BigDecimal number) {
+        return numberFormat == null ? number.toPlainString() : numberFormat.format(number);
+    }
+
+    public ValueFormatter getValueFormatter() {
+        return valueFormatter;
+    }
+
+    /**
+     * sets the formatter of the values that are set with
+     * {@link PDFTableCell#setValue(Object)} or null to format them
+     * with their toString() method (numbers with the number format).
+     * The texts of a {@link ValueFormatter#isPure() pure} formatter are
+     * cached, so equal values are only formatted once.
+     *
+     * @param valueFormatter the formatter or null
+     * @return this object for chaining
+     */
+    public PDFTableColumn setValueFormatter(ValueFormatter valueFormatter) {
+        this.valueFormatter = valueFormatter;
+        this.formattedValues = valueFormatter != null && valueFormatter.isPure()
+                ? new FormattedValueCache(valueFormatter, FormattedValueCache.DEFAULT_MAX_SIZE)
+                : null;
+        return this;
+    }
+
+    String formatValue(Object value) {
+        if (value == null) {
+            return "";
+        }
+        if (formattedValues != null) {
+            return formattedValues.format(value);
+        }
+        if (valueFormatter != null) {
+            return valueFormatter.format(value);
+        }
+        if (value instanceof BigDecimal) {
+            return formatNumber((BigDecimal) value);
+        }
+        if (value instanceof Double || value instanceof Float) {
+            return formatNumber(((Number) value).doubleValue());
+        }
+        if (value instanceof Long || value instanceof Integer
+                || value instanceof Short || value instanceof Byte) {
+            return formatNumber(((Number) value).longValue());
+        }
+        return value.toString();
+    }
+
     /**
      * returns the size of the heading font or if not set the size
      * of the normal cell font
@@ -232,7 +401,38 @@ public class PDFTableColumn {
         return width;
     }
 
+    void setWidth(float width) {
+        this.width = width;
+    }
+
+    public boolean isAutoWidth() {
+        return autoWidth;
+    }
+
+    /**
+     * marks this column to get its width from its content when
+     * {@link PDFTable#autoFitColumns()} is called
+     *
+     * @param autoWidth true to fit the width to the content
+     * @return this object for chaining
+     */
+    public PDFTableColumn setAutoWidth(boolean autoWidth) {
+        this.autoWidth = autoWidth;
+        return this;
+    }
+
     public PDFTableBorder getBorderLeft() {
+        if (unshareBorder(PDFTableBorder.LEFT)) {
+            borderLeft = new PDFTableBorder(borderLeft);
+        }
+        return borderLeft;
+    }
+
+    /**
+     * returns the border without copying it if it is shared,
+     * so it must not be modified
+     */
+    PDFTableBorder readBorderLeft() {
         return borderLeft;
     }
 
@@ -241,10 +441,22 @@ public class PDFTableColumn {
             throw new IllegalArgumentException("null is not allowed here");
         }
         this.borderLeft = borderLeft;
+        this.sharedBorders &= ~PDFTableBorder.LEFT;
         return this;
     }
 
     public PDFTableBorder getBorderRight() {
+        if (unshareBorder(PDFTableBorder.RIGHT)) {
+            borderRight = new PDFTableBorder(borderRight);
+        }
+        return borderRight;
+    }
+
+    /**
+     * returns the border without copying it if it is shared,
+     * so it must not be modified
+     */
+    PDFTableBorder readBorderRight() {
         return borderRight;
     }
 
@@ -253,10 +465,22 @@ public class PDFTableColumn {
             throw new IllegalArgumentException("null is not allowed here");
         }
         this.borderRight = borderRight;
+        this.sharedBorders &= ~PDFTableBorder.RIGHT;
         return this;
     }
 
     public PDFTableBorder getBorderTop() {
+        if (unshareBorder(PDFTableBorder.TOP)) {
+            borderTop = new PDFTableBorder(borderTop);
+        }
+        return borderTop;
+    }
+
+    /**
+     * returns the border without copying it if it is shared,
+     * so it must not be modified
+     */
+    PDFTableBorder readBorderTop() {
         return borderTop;
     }
 
@@ -265,10 +489,22 @@ public class PDFTableColumn {
             throw new IllegalArgumentException("null is not allowed here");
         }
         this.borderTop = borderTop;
+        this.sharedBorders &= ~PDFTableBorder.TOP;
         return this;
     }
 
     public PDFTableBorder getBorderBottom() {
+        if (unshareBorder(PDFTableBorder.BOTTOM)) {
+            borderBottom = new PDFTableBorder(borderBottom);
+        }
+        return borderBottom;
+    }
+
+    /**
+     * returns the border without copying it if it is shared,
+     * so it must not be modified
+     */
+    PDFTableBorder readBorderBottom() {
         return borderBottom;
     }
 
@@ -277,6 +513,7 @@ public class PDFTableColumn {
             throw new IllegalArgumentException("null is not allowed here");
         }
         this.borderBottom = borderBottom;
+        this.sharedBorders &= ~PDFTableBorder.BOTTOM;
         return this;
     }
 
@@ -287,6 +524,12 @@ public class PDFTableColumn {
      * @param border the border
      * @return this object for chaining
      */
+    private boolean unshareBorder(int side) {
+        final boolean shared = (sharedBorders & side) != 0;
+        sharedBorders &= ~side;
+        return shared;
+    }
+
     public PDFTableColumn setBorder(PDFTableBorder border) {
         this.setBorderLeft(border);
         this.setBorderRight(border);
@@ -32,6 +32,7 @@ public class PDFTableRow {
     private final int index;
     final List<PDFTableCell> cells = new ArrayList<>();
     private float minHeight = 0;
+    private boolean keepWithNext = false;
     // private final PDFTable table;
 
     PDFTableRow(final PDFTable table, int index) {
@@ -42,6 +43,21 @@ public class PDFTableRow {
         }
     }
 
+    /**
+     * creates a copy of the given template row including the
+     * content, the style overrides and the merges of its cells
+     */
+    PDFTableRow(final PDFTable table, int index, PDFTableRow template) {
+        this.index = index;
+        this.minHeight = template.minHeight;
+        this.keepWithNext = template.keepWithNext;
+        for (PDFTableCell templateCell : template.cells) {
+            this.cells.add(templateCell == null
+                    ? null
+                    : new PDFTableCell(this, table, templateCell));
+        }
+    }
+
     public int getIndex() {
         return index;
     }
@@ -54,6 +70,22 @@ public class PDFTableRow {
         this.minHeight = minHeight;
     }
 
+    public boolean isKeepWithNext() {
+        return keepWithNext;
+    }
+
+    /**
+     * keeps this row on the same page as the next row, so the next page
+     * does not start with the next row if both fit on a page together
+     *
+     * @param keepWithNext true to keep this row with the next one
+     * @return this object for chaining
+     */
+    public PDFTableRow setKeepWithNext(boolean keepWithNext) {
+        this.keepWithNext = keepWithNext;
+        return this;
+    }
+
     public PDFTableCell getCell(int index) {
         if (index < 0 || index >= cells.size()) {
             throw new IllegalArgumentException("index out of range");
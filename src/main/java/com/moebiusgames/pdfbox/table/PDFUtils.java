@@ -23,14 +23,24 @@
  */
 package com.moebiusgames.pdfbox.table;
 
+import java.io.BufferedOutputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
 import java.util.Arrays;
-import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import org.apache.pdfbox.pdfwriter.compress.CompressParameters;
 import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.pdmodel.PDPage;
+import org.apache.pdfbox.pdmodel.common.PDRectangle;
 import org.apache.pdfbox.pdmodel.font.PDFont;
 import org.apache.pdfbox.pdmodel.font.PDType1Font;
 import org.apache.pdfbox.pdmodel.font.Standard14Fonts;
@@ -42,97 +52,269 @@ public final class PDFUtils {
     public static final float POINTS_PER_INCH = 72;
     public static final float MM_TO_POINTS_72DPI = 1 / (10 * 2.54f) * POINTS_PER_INCH;
 
-    private static final Map<PDFont, PDFont> BOLD_FONT_VARIANTS = new HashMap<>();
+    public static final int DEFAULT_SAVE_BUFFER_SIZE = 64 * 1024;
+
+    /**
+     * writes every object on its own with a classic cross-reference table
+     * (readable by PDF 1.4 readers)
+     */
+    public static final CompressParameters CLASSIC_OUTPUT = CompressParameters.NO_COMPRESSION;
+    /**
+     * packs all objects but the streams into object streams and writes a
+     * cross-reference stream (PDF 1.5), this is the default
+     */
+    public static final CompressParameters COMPACT_OUTPUT = CompressParameters.DEFAULT_COMPRESSION;
+
+    // regular, bold, italic, bold italic
+    private static final Standard14Fonts.FontName[][] FONT_FAMILIES = {
+        {Standard14Fonts.FontName.TIMES_ROMAN, Standard14Fonts.FontName.TIMES_BOLD,
+            Standard14Fonts.FontName.TIMES_ITALIC, Standard14Fonts.FontName.TIMES_BOLD_ITALIC},
+        {Standard14Fonts.FontName.COURIER, Standard14Fonts.FontName.COURIER_BOLD,
+            Standard14Fonts.FontName.COURIER_OBLIQUE, Standard14Fonts.FontName.COURIER_BOLD_OBLIQUE},
+        {Standard14Fonts.FontName.HELVETICA, Standard14Fonts.FontName.HELVETICA_BOLD,
+            Standard14Fonts.FontName.HELVETICA_OBLIQUE, Standard14Fonts.FontName.HELVETICA_BOLD_OBLIQUE}
+    };
+
+    private static final Map<Standard14Fonts.FontName, PDFont> STANDARD_FONTS
+            = new ConcurrentHashMap<>();
 
     static {
         NO_BORDER.setLineWidth(0);
-        BOLD_FONT_VARIANTS.put(
-            new PDType1Font(Standard14Fonts.FontName.COURIER),
-            new PDType1Font(Standard14Fonts.FontName.COURIER_BOLD)
-        );
-        BOLD_FONT_VARIANTS.put(
-            new PDType1Font(Standard14Fonts.FontName.HELVETICA),
-            new PDType1Font(Standard14Fonts.FontName.HELVETICA_BOLD)
-        );
-        BOLD_FONT_VARIANTS.put(
-            new PDType1Font(Standard14Fonts.FontName.TIMES_ROMAN),
-            new PDType1Font(Standard14Fonts.FontName.TIMES_BOLD)
-        );
     }
 
     public static PDFont getBoldVariant(PDFont font) {
-        PDFont result = BOLD_FONT_VARIANTS.get(font);
-        if (result == null) {
-            result = new PDType1Font(Standard14Fonts.FontName.HELVETICA_BOLD); //<- default
-        }
-        return result;
+        final Standard14Fonts.FontName[] family = getFontFamily(font);
+        return getStandardFont(family == null
+                ? Standard14Fonts.FontName.HELVETICA_BOLD //<- default
+                : family[1]);
     }
 
+    /**
+     * saves the document into a new byte array. Note that the document
+     * is held in memory twice while doing so, use one of the save methods
+     * to stream it instead.
+     *
+     * @param doc the document
+     * @return the saved document
+     * @throws IOException
+     */
     public static byte[] renderPDF(PDDocument doc) throws IOException {
+        return renderPDF(doc, COMPACT_OUTPUT);
+    }
+
+    /**
+     * saves the document into a new byte array using the given output mode
+     * ({@link #CLASSIC_OUTPUT}, {@link #COMPACT_OUTPUT} or custom parameters)
+     *
+     * @param doc the document
+     * @param outputMode the output mode
+     * @return the saved document
+     * @throws IOException
+     */
+    public static byte[] renderPDF(PDDocument doc, CompressParameters outputMode) throws IOException {
         ByteArrayOutputStream bOut = new ByteArrayOutputStream();
-        doc.save(bOut);
+        doc.save(bOut, outputMode);
         return bOut.toByteArray();
     }
 
+    /**
+     * saves the document straight to the given stream. The stream is
+     * flushed, but not closed.
+     *
+     * @param doc the document
+     * @param out the stream to save to
+     * @return the size of the saved document in bytes
+     * @throws IOException
+     */
+    public static long save(PDDocument doc, OutputStream out) throws IOException {
+        return save(doc, out, COMPACT_OUTPUT);
+    }
+
+    /**
+     * saves the document straight to the given stream using the given
+     * output mode. The stream is flushed, but not closed.
+     *
+     * @param doc the document
+     * @param out the stream to save to
+     * @param outputMode the output mode
+     * @return the size of the saved document in bytes
+     * @throws IOException
+     */
+    public static long save(PDDocument doc, OutputStream out, CompressParameters outputMode)
+            throws IOException {
+        return saveCounting(doc, new BufferedOutputStream(out, DEFAULT_SAVE_BUFFER_SIZE), outputMode);
+    }
+
+    /**
+     * saves the document straight to the given channel (e.g. a
+     * {@link FileChannel}) in chunks of {@link #DEFAULT_SAVE_BUFFER_SIZE}
+     * bytes. The channel is not closed.
+     *
+     * @param doc the document
+     * @param channel the channel to save to
+     * @return the size of the saved document in bytes
+     * @throws IOException
+     */
+    public static long save(PDDocument doc, WritableByteChannel channel) throws IOException {
+        return save(doc, channel, COMPACT_OUTPUT);
+    }
+
+    /**
+     * saves the document straight to the given channel using the given
+     * output mode. The channel is not closed.
+     *
+     * @param doc the document
+     * @param channel the channel to save to
+     * @param outputMode the output mode
+     * @return the size of the saved document in bytes
+     * @throws IOException
+     */
+    public static long save(PDDocument doc, WritableByteChannel channel, CompressParameters outputMode)
+            throws IOException {
+        return saveCounting(doc, new ChannelOutputStream(channel, DEFAULT_SAVE_BUFFER_SIZE), outputMode);
+    }
+
+    /**
+     * saves the document to the given file, an existing file is replaced
+     *
+     * @param doc the document
+     * @param file the file to save to
+     * @return the size of the saved document in bytes
+     * @throws IOException
+     */
+    public static long save(PDDocument doc, Path file) throws IOException {
+        return save(doc, file, COMPACT_OUTPUT);
+    }
+
+    /**
+     * saves the document to the given file using the given output mode,
+     * an existing file is replaced
+     *
+     * @param doc the document
+     * @param file the file to save to
+     * @param outputMode the output mode
+     * @return the size of the saved document in bytes
+     * @throws IOException
+     */
+    public static long save(PDDocument doc, Path file, CompressParameters outputMode) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            return save(doc, channel, outputMode);
+        }
+    }
+
+    /**
+     * saves the document into the given (e.g. direct) buffer starting at its
+     * current position, which is advanced by the size of the document. If
+     * the document does not fit into the remaining space an IOException is
+     * thrown and the content of the buffer is undefined.
+     *
+     * @param doc the document
+     * @param buffer the buffer to save to
+     * @return the size of the saved document in bytes
+     * @throws IOException
+     */
+    public static long save(PDDocument doc, ByteBuffer buffer) throws IOException {
+        return save(doc, buffer, COMPACT_OUTPUT);
+    }
+
+    /**
+     * saves the document into the given buffer using the given output mode,
+     * see {@link #save(PDDocument, ByteBuffer)}
+     *
+     * @param doc the document
+     * @param buffer the buffer to save to
+     * @param outputMode the output mode
+     * @return the size of the saved document in bytes
+     * @throws IOException
+     */
+    public static long save(PDDocument doc, ByteBuffer buffer, CompressParameters outputMode)
+            throws IOException {
+        return saveCounting(doc, new BufferedOutputStream(new ByteBufferOutputStream(buffer),
+                DEFAULT_SAVE_BUFFER_SIZE), outputMode);
+    }
+
+    private static long saveCounting(PDDocument doc, OutputStream out, CompressParameters outputMode)
+            throws IOException {
+        if (outputMode == null) {
+            throw new IllegalArgumentException("null is not allowed");
+        }
+        final CountingOutputStream countingOut = new CountingOutputStream(out);
+        doc.save(countingOut, outputMode);
+        countingOut.flush();
+        return countingOut.getCount();
+    }
+
+    /**
+     * renders the table into a new document with pages of the given size,
+     * streams the document to the given stream and closes the document again.
+     * The stream is flushed, but not closed.
+     *
+     * @param table the table to render
+     * @param pageSize the size of the pages
+     * @param x the x position of the table
+     * @param out the stream to save to
+     * @return the result of rendering and saving the table (the last page
+     *          refers to the already closed document)
+     * @throws IOException
+     */
+    public static RenderResult renderTable(PDFTable table, PDRectangle pageSize, float x,
+            OutputStream out) throws IOException {
+        try (PDDocument doc = new PDDocument()) {
+            final PDFRenderContext context = new PDFRenderContext(doc, new PDPage(pageSize));
+            table.render(context, x);
+            context.closeAllPages();
+            final long bytesWritten = save(doc, out);
+            final PDFPageWithStream lastPage = context.getLastPage();
+            return new RenderResult(context.getPageCount(), lastPage,
+                    lastPage.getRenderedYPosition(), bytesWritten);
+        }
+    }
+
     public static PDFont modifyFont(PDFont font, FontModifier... modifiers) {
         return modifyFont(font, new HashSet<>(Arrays.asList(modifiers)));
     }
 
     public static PDFont modifyFont(PDFont font, Set<FontModifier> modifiers) {
-        final PDFont baseFont;
-        if (font.equals(new PDType1Font(Standard14Fonts.FontName.TIMES_ROMAN))
-                || font.equals(new PDType1Font(Standard14Fonts.FontName.TIMES_BOLD))
-                || font.equals(new PDType1Font(Standard14Fonts.FontName.TIMES_ITALIC))
-                || font.equals(new PDType1Font(Standard14Fonts.FontName.TIMES_BOLD_ITALIC))) {
-            baseFont = new PDType1Font(Standard14Fonts.FontName.TIMES_ROMAN);
-        } else if (font.equals(new PDType1Font(Standard14Fonts.FontName.COURIER))
-                || font.equals(new PDType1Font(Standard14Fonts.FontName.COURIER_BOLD))
-                || font.equals(new PDType1Font(Standard14Fonts.FontName.COURIER_OBLIQUE))
-                || font.equals(new PDType1Font(Standard14Fonts.FontName.COURIER_BOLD_OBLIQUE))) {
-            baseFont = new PDType1Font(Standard14Fonts.FontName.COURIER);
-        } else if (font.equals(new PDType1Font(Standard14Fonts.FontName.HELVETICA))
-                || font.equals(new PDType1Font(Standard14Fonts.FontName.HELVETICA_BOLD))
-                || font.equals(new PDType1Font(Standard14Fonts.FontName.HELVETICA_OBLIQUE))
-                || font.equals(new PDType1Font(Standard14Fonts.FontName.HELVETICA_BOLD_OBLIQUE))) {
-            baseFont = new PDType1Font(Standard14Fonts.FontName.HELVETICA);
-        } else {
+        final Standard14Fonts.FontName[] family = getFontFamily(font);
+        if (family == null) {
             throw new IllegalArgumentException("This font is not supported");
         }
+        final int variant = (modifiers.contains(FontModifier.BOLD) ? 1 : 0)
+                + (modifiers.contains(FontModifier.ITALIC) ? 2 : 0);
+        return getStandardFont(family[variant]);
+    }
 
-        if (baseFont.equals(new PDType1Font(Standard14Fonts.FontName.TIMES_ROMAN))) {
-            if (modifiers.contains(FontModifier.BOLD) && modifiers.contains(FontModifier.ITALIC)) {
-                return new PDType1Font(Standard14Fonts.FontName.TIMES_BOLD_ITALIC);
-            }
-            if (modifiers.contains(FontModifier.BOLD)) {
-                return new PDType1Font(Standard14Fonts.FontName.TIMES_BOLD);
-            }
-            if (modifiers.contains(FontModifier.ITALIC)) {
-                return new PDType1Font(Standard14Fonts.FontName.TIMES_ITALIC);
-            }
-            return baseFont;
-        } else if (baseFont.equals(new PDType1Font(Standard14Fonts.FontName.COURIER))) {
-            if (modifiers.contains(FontModifier.BOLD) && modifiers.contains(FontModifier.ITALIC)) {
-                return new PDType1Font(Standard14Fonts.FontName.COURIER_BOLD_OBLIQUE);
-            }
-            if (modifiers.contains(FontModifier.BOLD)) {
-                return new PDType1Font(Standard14Fonts.FontName.COURIER_BOLD);
-            }
-            if (modifiers.contains(FontModifier.ITALIC)) {
-                return new PDType1Font(Standard14Fonts.FontName.COURIER_OBLIQUE);
-            }
-            return baseFont;
-        } else {
-            if (modifiers.contains(FontModifier.BOLD) && modifiers.contains(FontModifier.ITALIC)) {
-                return new PDType1Font(Standard14Fonts.FontName.HELVETICA_BOLD_OBLIQUE);
-            }
-            if (modifiers.contains(FontModifier.BOLD)) {
-                return new PDType1Font(Standard14Fonts.FontName.HELVETICA_BOLD);
-            }
-            if (modifiers.contains(FontModifier.ITALIC)) {
-                return new PDType1Font(Standard14Fonts.FontName.HELVETICA_OBLIQUE);
+    /**
+     * returns the process wide instance of the given standard 14 font. It
+     * is meant for measuring text, when rendering the font is replaced by
+     * the instance of the document (see
+     * {@link PDFRenderContext#getDocumentFont(PDFont)}). As the instance is
+     * shared between threads and its caches are not thread safe, text must
+     * only be measured with {@link GlyphWidths}.
+     *
+     * @param fontName the name of the font
+     * @return the font
+     */
+    static PDFont getStandardFont(Standard14Fonts.FontName fontName) {
+        return STANDARD_FONTS.computeIfAbsent(fontName, PDType1Font::new);
+    }
+
+    /**
+     * returns the regular, bold, italic and bold italic variant of the
+     * given standard 14 font or null if it is none of those families
+     */
+    private static Standard14Fonts.FontName[] getFontFamily(PDFont font) {
+        if (font == null || !font.isStandard14()) {
+            return null;
+        }
+        final Standard14Fonts.FontName fontName = Standard14Fonts.getMappedFontName(font.getName());
+        for (Standard14Fonts.FontName[] family : FONT_FAMILIES) {
+            if (Arrays.asList(family).contains(fontName)) {
+                return family;
             }
-            return baseFont;
         }
+        return null;
     }
 
     public static enum FontModifier {
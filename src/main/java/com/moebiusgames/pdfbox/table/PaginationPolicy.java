@@ -0,0 +1,113 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2019-2022 MobiusCode GmbH.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.moebiusgames.pdfbox.table;
+
+/**
+ * Decides where a table breaks into pages. By default a row that does
+ * not fit onto the rest of a page is moved to the next page as a whole
+ * (keep together) and only rows that are taller than a page are split.
+ * If splitting is allowed, rows are split at the page end instead, keeping
+ * at least the given amount of lines per cell on both pages (orphans and
+ * widows). Rows marked with {@link PDFTableRow#setKeepWithNext(boolean)}
+ * are moved to the next page together with the following row if the
+ * group fits on a page.
+ *
+ * All decisions are made from row heights that are computed once
+ * before the table is rendered.
+ */
+public final class PaginationPolicy {
+
+    private boolean splitAllowed = false;
+    private int minOrphanLines = 1;
+    private int minWidowLines = 1;
+
+    public PaginationPolicy() {
+    }
+
+    /**
+     * creates a copy of the given policy
+     *
+     * @param template the policy to copy
+     */
+    public PaginationPolicy(PaginationPolicy template) {
+        this.splitAllowed = template.splitAllowed;
+        this.minOrphanLines = template.minOrphanLines;
+        this.minWidowLines = template.minWidowLines;
+    }
+
+    public boolean isSplitAllowed() {
+        return splitAllowed;
+    }
+
+    /**
+     * sets if rows that fit on a page may still be split at the page end
+     *
+     * @param splitAllowed true to allow splitting
+     * @return this object for chaining
+     */
+    public PaginationPolicy setSplitAllowed(boolean splitAllowed) {
+        this.splitAllowed = splitAllowed;
+        return this;
+    }
+
+    public int getMinOrphanLines() {
+        return minOrphanLines;
+    }
+
+    /**
+     * sets the min amount of lines of each cell that must stay on
+     * the page a split row starts on, otherwise the row starts on
+     * the next page
+     *
+     * @param minOrphanLines the min amount of lines (at least 1)
+     * @return this object for chaining
+     */
+    public PaginationPolicy setMinOrphanLines(int minOrphanLines) {
+        if (minOrphanLines < 1) {
+            throw new IllegalArgumentException("min orphan lines must be at least 1");
+        }
+        this.minOrphanLines = minOrphanLines;
+        return this;
+    }
+
+    public int getMinWidowLines() {
+        return minWidowLines;
+    }
+
+    /**
+     * sets the min amount of lines of each cell that are moved to
+     * the next page if a row is split
+     *
+     * @param minWidowLines the min amount of lines (at least 1)
+     * @return this object for chaining
+     */
+    public PaginationPolicy setMinWidowLines(int minWidowLines) {
+        if (minWidowLines < 1) {
+            throw new IllegalArgumentException("min widow lines must be at least 1");
+        }
+        this.minWidowLines = minWidowLines;
+        return this;
+    }
+
+}
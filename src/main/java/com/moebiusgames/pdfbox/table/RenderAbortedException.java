@@ -0,0 +1,84 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2019-2022 MobiusCode GmbH.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.moebiusgames.pdfbox.table;
+
+import java.io.IOException;
+
+/**
+ * thrown when rendering exceeded its {@link RenderBudget}. All pages
+ * of the render context are closed already, so the document contains
+ * everything that was rendered up to this point.
+ */
+public class RenderAbortedException extends IOException {
+
+    private static final long serialVersionUID = 1L;
+
+    private final Reason reason;
+    private final long renderedRows;
+    private final int pageCount;
+
+    public RenderAbortedException(Reason reason, long renderedRows, int pageCount) {
+        super("Rendering aborted (" + reason + ") after " + renderedRows
+                + " rows on " + pageCount + " pages");
+        this.reason = reason;
+        this.renderedRows = renderedRows;
+        this.pageCount = pageCount;
+    }
+
+    public Reason getReason() {
+        return reason;
+    }
+
+    /**
+     * returns the amount of table rows that were completely
+     * rendered with the budget
+     *
+     * @return the amount of rows
+     */
+    public long getRenderedRows() {
+        return renderedRows;
+    }
+
+    /**
+     * returns the amount of pages of the render context
+     *
+     * @return the amount of pages
+     */
+    public int getPageCount() {
+        return pageCount;
+    }
+
+    public static enum Reason {
+        DEADLINE,
+
+        MAX_PAGES,
+
+        MAX_ROWS,
+
+        CANCELLED,
+
+        INTERRUPTED
+    }
+
+}
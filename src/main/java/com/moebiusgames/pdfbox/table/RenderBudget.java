@@ -0,0 +1,163 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2019-2022 MobiusCode GmbH.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.moebiusgames.pdfbox.table;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Limits how much work rendering into a {@link PDFRenderContext} may take:
+ * a deadline, a max amount of pages and a max amount of table rows. The
+ * budget can also be cancelled from another thread. It is checked at every
+ * row and page boundary - when it is exceeded, all pages of the context are
+ * closed and a {@link RenderAbortedException} reports how far the
+ * rendering got. Interrupting the rendering thread aborts it as well.
+ *
+ * Set the budget with {@link PDFRenderContext#setRenderBudget(RenderBudget)}.
+ */
+public final class RenderBudget {
+
+    private long deadlineNanos = 0;
+    private boolean hasDeadline = false;
+    private int maxPages = PDFTable.NOT_SET;
+    private long maxRows = PDFTable.NOT_SET;
+    private volatile boolean cancelled = false;
+    private long renderedRows = 0;
+
+    /**
+     * sets a deadline relative to now
+     *
+     * @param timeout the time rendering may take from now on
+     * @param unit the unit of the timeout
+     * @return this object for chaining
+     */
+    public RenderBudget setTimeout(long timeout, TimeUnit unit) {
+        if (timeout < 0) {
+            throw new IllegalArgumentException("timeout must not be negative");
+        }
+        this.deadlineNanos = System.nanoTime() + unit.toNanos(timeout);
+        this.hasDeadline = true;
+        return this;
+    }
+
+    public int getMaxPages() {
+        return maxPages;
+    }
+
+    /**
+     * sets the max amount of pages the render context may contain
+     *
+     * @param maxPages the max amount of pages or NOT_SET
+     * @return this object for chaining
+     */
+    public RenderBudget setMaxPages(int maxPages) {
+        if (maxPages <= 0 && maxPages != PDFTable.NOT_SET) {
+            throw new IllegalArgumentException("max pages must be positive");
+        }
+        this.maxPages = maxPages;
+        return this;
+    }
+
+    public long getMaxRows() {
+        return maxRows;
+    }
+
+    /**
+     * sets the max amount of table rows that may be rendered in total
+     *
+     * @param maxRows the max amount of rows or NOT_SET
+     * @return this object for chaining
+     */
+    public RenderBudget setMaxRows(long maxRows) {
+        if (maxRows < 0 && maxRows != PDFTable.NOT_SET) {
+            throw new IllegalArgumentException("max rows must not be negative");
+        }
+        this.maxRows = maxRows;
+        return this;
+    }
+
+    /**
+     * cancels the rendering, can be called from any thread
+     */
+    public void cancel() {
+        this.cancelled = true;
+    }
+
+    public boolean isCancelled() {
+        return cancelled;
+    }
+
+    /**
+     * returns the amount of table rows rendered with this budget
+     *
+     * @return the amount of rendered rows
+     */
+    public long getRenderedRows() {
+        return renderedRows;
+    }
+
+    /**
+     * checks the budget before a table row is rendered
+     */
+    void checkRow(PDFRenderContext renderContext) throws IOException {
+        if (maxRows != PDFTable.NOT_SET && renderedRows >= maxRows) {
+            abort(renderContext, RenderAbortedException.Reason.MAX_ROWS);
+        }
+        checkCommon(renderContext);
+    }
+
+    void rowRendered() {
+        renderedRows++;
+    }
+
+    /**
+     * checks the budget before rendering continues on the page after the given page
+     */
+    void checkPage(PDFRenderContext renderContext, PDFPageWithStream currentPage) throws IOException {
+        if (maxPages != PDFTable.NOT_SET
+                && currentPage == renderContext.getLastPage()
+                && renderContext.getPageCount() >= maxPages) {
+            abort(renderContext, RenderAbortedException.Reason.MAX_PAGES);
+        }
+        checkCommon(renderContext);
+    }
+
+    private void checkCommon(PDFRenderContext renderContext) throws IOException {
+        if (cancelled) {
+            abort(renderContext, RenderAbortedException.Reason.CANCELLED);
+        }
+        if (Thread.currentThread().isInterrupted()) {
+            abort(renderContext, RenderAbortedException.Reason.INTERRUPTED);
+        }
+        if (hasDeadline && System.nanoTime() - deadlineNanos > 0) {
+            abort(renderContext, RenderAbortedException.Reason.DEADLINE);
+        }
+    }
+
+    private void abort(PDFRenderContext renderContext, RenderAbortedException.Reason reason) throws IOException {
+        renderContext.closeAllPages();
+        throw new RenderAbortedException(reason, renderedRows, renderContext.getPageCount());
+    }
+
+}
@@ -0,0 +1,155 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2019-2022 MobiusCode GmbH.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.moebiusgames.pdfbox.table;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Arrays;
+
+/**
+ * The state of a table render at the start of a page: the index of the
+ * row that continues there, the lines of its cells that were already
+ * rendered on the previous page (if the row was split) and the amount of
+ * completed pages. It is written in a few bytes, so it can be stored
+ * often. See {@link PDFTable#resumeSession(PDFRenderContext, float, RenderCheckpoint)}.
+ */
+public final class RenderCheckpoint {
+
+    private static final int MAGIC = 0x50544350; // "PTCP"
+    private static final int VERSION = 1;
+
+    private final long rowIndex;
+    private final int[] splitLines;
+    private final int pageCount;
+
+    /**
+     * creates a checkpoint
+     *
+     * @param rowIndex the index of the row to continue with
+     * @param splitLines the rendered lines per (not merged) cell of the
+     * row, empty if the row was not split
+     * @param pageCount the amount of completed pages
+     */
+    public RenderCheckpoint(long rowIndex, int[] splitLines, int pageCount) {
+        if (splitLines == null) {
+            throw new IllegalArgumentException("null is not allowed");
+        }
+        if (rowIndex < 0 || pageCount < 0) {
+            throw new IllegalArgumentException("row index and page count must not be negative");
+        }
+        this.rowIndex = rowIndex;
+        this.splitLines = splitLines.clone();
+        this.pageCount = pageCount;
+    }
+
+    public long getRowIndex() {
+        return rowIndex;
+    }
+
+    public int[] getSplitLines() {
+        return splitLines.clone();
+    }
+
+    public boolean isRowSplit() {
+        return splitLines.length > 0;
+    }
+
+    public int getPageCount() {
+        return pageCount;
+    }
+
+    /**
+     * writes this checkpoint to the given stream, the stream is not closed
+     *
+     * @param out the stream
+     * @throws IOException
+     */
+    public void writeTo(OutputStream out) throws IOException {
+        final DataOutputStream dataOut = new DataOutputStream(out);
+        dataOut.writeInt(MAGIC);
+        dataOut.writeByte(VERSION);
+        dataOut.writeLong(rowIndex);
+        dataOut.writeInt(pageCount);
+        dataOut.writeInt(splitLines.length);
+        for (int lines : splitLines) {
+            dataOut.writeInt(lines);
+        }
+        dataOut.flush();
+    }
+
+    /**
+     * reads a checkpoint that was written with {@link #writeTo(OutputStream)},
+     * the stream is not closed
+     *
+     * @param in the stream
+     * @return the checkpoint
+     * @throws IOException if the stream does not contain a checkpoint
+     */
+    public static RenderCheckpoint readFrom(InputStream in) throws IOException {
+        final DataInputStream dataIn = new DataInputStream(in);
+        if (dataIn.readInt() != MAGIC || dataIn.readByte() != VERSION) {
+            throw new IOException("Not a render checkpoint");
+        }
+        final long rowIndex = dataIn.readLong();
+        final int pageCount = dataIn.readInt();
+        final int cells = dataIn.readInt();
+        if (rowIndex < 0 || pageCount < 0 || cells < 0 || cells > 0xFFFF) {
+            throw new IOException("Corrupt render checkpoint");
+        }
+        final int[] splitLines = new int[cells];
+        for (int i = 0; i < cells; ++i) {
+            splitLines[i] = dataIn.readInt();
+        }
+        return new RenderCheckpoint(rowIndex, splitLines, pageCount);
+    }
+
+    @Override
+    public int hashCode() {
+        return Long.hashCode(rowIndex) * 31 * 31 + Arrays.hashCode(splitLines) * 31 + pageCount;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) {
+            return true;
+        }
+        if (!(obj instanceof RenderCheckpoint)) {
+            return false;
+        }
+        final RenderCheckpoint other = (RenderCheckpoint) obj;
+        return rowIndex == other.rowIndex
+                && pageCount == other.pageCount
+                && Arrays.equals(splitLines, other.splitLines);
+    }
+
+    @Override
+    public String toString() {
+        return "RenderCheckpoint{rowIndex=" + rowIndex + ", splitLines=" + Arrays.toString(splitLines)
+                + ", pageCount=" + pageCount + '}';
+    }
+
+}
@@ -0,0 +1,110 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2019-2022 MobiusCode GmbH.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.moebiusgames.pdfbox.table;
+
+/**
+ * a rough estimate of the resources that rendering a table needs,
+ * see {@link PDFTable#estimate(float)}
+ */
+public final class RenderEstimate {
+
+    private final int pageCount;
+    private final long modelHeapBytes;
+    private final long layoutHeapBytes;
+    private final long outputBytes;
+    private final int sampledRows;
+
+    RenderEstimate(int pageCount, long modelHeapBytes, long layoutHeapBytes,
+            long outputBytes, int sampledRows) {
+        this.pageCount = pageCount;
+        this.modelHeapBytes = modelHeapBytes;
+        this.layoutHeapBytes = layoutHeapBytes;
+        this.outputBytes = outputBytes;
+        this.sampledRows = sampledRows;
+    }
+
+    /**
+     * returns the estimated amount of pages the table spans
+     *
+     * @return the page count
+     */
+    public int getPageCount() {
+        return pageCount;
+    }
+
+    /**
+     * returns the estimated heap retained by the rows and cells
+     * of the table including their content
+     *
+     * @return the size in bytes
+     */
+    public long getModelHeapBytes() {
+        return modelHeapBytes;
+    }
+
+    /**
+     * returns the estimated heap retained by the layouts of
+     * all cells once the table is rendered
+     *
+     * @return the size in bytes
+     */
+    public long getLayoutHeapBytes() {
+        return layoutHeapBytes;
+    }
+
+    /**
+     * returns the estimated heap retained by the table after rendering
+     *
+     * @return the size in bytes
+     */
+    public long getRetainedHeapBytes() {
+        return modelHeapBytes + layoutHeapBytes;
+    }
+
+    /**
+     * returns the approximate size of the table in the compressed output
+     *
+     * @return the size in bytes
+     */
+    public long getOutputBytes() {
+        return outputBytes;
+    }
+
+    /**
+     * returns the amount of rows that were laid out for this estimate
+     *
+     * @return the amount of sampled rows
+     */
+    public int getSampledRows() {
+        return sampledRows;
+    }
+
+    @Override
+    public String toString() {
+        return "RenderEstimate{pages=" + pageCount + ", modelHeapBytes=" + modelHeapBytes
+                + ", layoutHeapBytes=" + layoutHeapBytes + ", outputBytes=" + outputBytes
+                + ", sampledRows=" + sampledRows + "}";
+    }
+
+}
@@ -0,0 +1,80 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2019-2022 MobiusCode GmbH.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.moebiusgames.pdfbox.table;
+
+/**
+ * the result of an (asynchronous) render or save operation
+ */
+public final class RenderResult {
+
+    private final int pageCount;
+    private final PDFPageWithStream lastPage;
+    private final float renderedYPosition;
+    private final long bytesWritten;
+
+    RenderResult(int pageCount, PDFPageWithStream lastPage, float renderedYPosition, long bytesWritten) {
+        this.pageCount = pageCount;
+        this.lastPage = lastPage;
+        this.renderedYPosition = renderedYPosition;
+        this.bytesWritten = bytesWritten;
+    }
+
+    /**
+     * returns the amount of pages of the render context
+     *
+     * @return the page count
+     */
+    public int getPageCount() {
+        return pageCount;
+    }
+
+    /**
+     * returns the page the rendering ended on
+     *
+     * @return the last rendered page
+     */
+    public PDFPageWithStream getLastPage() {
+        return lastPage;
+    }
+
+    /**
+     * returns the y position on the last page where the rendering ended
+     *
+     * @return the y position
+     */
+    public float getRenderedYPosition() {
+        return renderedYPosition;
+    }
+
+    /**
+     * returns the size of the saved document or -1 if
+     * the document was not saved
+     *
+     * @return the size in bytes
+     */
+    public long getBytesWritten() {
+        return bytesWritten;
+    }
+
+}
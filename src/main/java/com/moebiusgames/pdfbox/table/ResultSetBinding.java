@@ -0,0 +1,191 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2019-2022 MobiusCode GmbH.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.moebiusgames.pdfbox.table;
+
+import java.io.IOException;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Binds the columns of a JDBC {@link ResultSet} to the columns of a table
+ * and renders the rows while iterating the cursor. Only one batch of rows
+ * (the fetch size of the result set) is held in memory at once. The
+ * extracted values are set with {@link PDFTableCell#setValue(Object)},
+ * so they are formatted by the value formatters of the columns.
+ *
+ * <pre>
+ * new ResultSetBinding(table)
+ *         .bind(0, "name")
+ *         .bind(1, "amount")
+ *         .bind(2, rs -&gt; rs.getDate("created").toLocalDate())
+ *         .render(resultSet, renderContext, 20);
+ * </pre>
+ */
+public final class ResultSetBinding {
+
+    public static final int DEFAULT_BATCH_SIZE = 256;
+
+    private final PDFTable table;
+    private final List<ColumnExtractor> extractors = new ArrayList<>();
+
+    /**
+     * creates a binding that renders with the given table as template,
+     * see {@link PDFTable#render(PDFRenderContext, float, RowSource, int)}
+     *
+     * @param table the table that defines the columns
+     */
+    public ResultSetBinding(PDFTable table) {
+        if (table == null) {
+            throw new IllegalArgumentException("null is not allowed");
+        }
+        this.table = table;
+        for (int colIndex = 0; colIndex < table.getColumns(); ++colIndex) {
+            extractors.add(null);
+        }
+    }
+
+    /**
+     * binds the result set column with the given label to a table column
+     *
+     * @param colIndex the index of the table column
+     * @param columnLabel the label of the result set column
+     * @return this object for chaining
+     */
+    public ResultSetBinding bind(int colIndex, String columnLabel) {
+        if (columnLabel == null) {
+            throw new IllegalArgumentException("null is not allowed");
+        }
+        return bind(colIndex, rs -> rs.getObject(columnLabel));
+    }
+
+    /**
+     * binds the result set column with the given index (starting
+     * at 1) to a table column
+     *
+     * @param colIndex the index of the table column
+     * @param columnIndex the index of the result set column
+     * @return this object for chaining
+     */
+    public ResultSetBinding bind(int colIndex, int columnIndex) {
+        return bind(colIndex, rs -> rs.getObject(columnIndex));
+    }
+
+    /**
+     * binds an extractor to a table column
+     *
+     * @param colIndex the index of the table column
+     * @param extractor the extractor of the cell values
+     * @return this object for chaining
+     */
+    public ResultSetBinding bind(int colIndex, ColumnExtractor extractor) {
+        if (colIndex < 0 || colIndex >= extractors.size()) {
+            throw new IllegalArgumentException("index is out of range");
+        }
+        if (extractor == null) {
+            throw new IllegalArgumentException("null is not allowed");
+        }
+        extractors.set(colIndex, extractor);
+        return this;
+    }
+
+    /**
+     * renders the table followed by all remaining rows of the result set,
+     * starting at the last page directly under the last rendered element.
+     * The rows are rendered in batches of the fetch size of the result set
+     * (or {@link #DEFAULT_BATCH_SIZE} if it has none). The result set is
+     * not closed.
+     *
+     * @param resultSet the result set
+     * @param renderContext the render context that collects all pages
+     * @param x the x position to render the table
+     * @return the result of the rendering
+     * @throws IOException
+     * @throws SQLException
+     */
+    public RenderResult render(ResultSet resultSet, PDFRenderContext renderContext, float x)
+            throws IOException, SQLException {
+        final int fetchSize = resultSet.getFetchSize();
+        try {
+            return table.render(renderContext, x, row -> nextRow(resultSet, row),
+                    fetchSize > 0 ? fetchSize : DEFAULT_BATCH_SIZE);
+        } catch (WrappedSQLException e) {
+            throw e.getCause();
+        }
+    }
+
+    private boolean nextRow(ResultSet resultSet, PDFTableRow row) throws WrappedSQLException {
+        try {
+            if (!resultSet.next()) {
+                return false;
+            }
+            for (int colIndex = 0; colIndex < extractors.size(); ++colIndex) {
+                final ColumnExtractor extractor = extractors.get(colIndex);
+                final PDFTableCell cell = row.getCell(colIndex);
+                if (extractor != null && cell != null) {
+                    cell.setValue(extractor.extract(resultSet));
+                }
+            }
+            return true;
+        } catch (SQLException e) {
+            throw new WrappedSQLException(e);
+        }
+    }
+
+    /**
+     * extracts the value of a cell from the current row of a result set
+     */
+    @FunctionalInterface
+    public interface ColumnExtractor {
+
+        /**
+         * returns the value of the cell
+         *
+         * @param resultSet the result set at the current row
+         * @return the value or null for an empty cell
+         * @throws SQLException
+         */
+        Object extract(ResultSet resultSet) throws SQLException;
+
+    }
+
+    /**
+     * passes SQL exceptions through the row source
+     */
+    private static final class WrappedSQLException extends IOException {
+
+        private static final long serialVersionUID = 1L;
+
+        WrappedSQLException(SQLException cause) {
+            super(cause);
+        }
+
+        @Override
+        public synchronized SQLException getCause() {
+            return (SQLException) super.getCause();
+        }
+    }
+
+}
@@ -0,0 +1,168 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2019-2022 MobiusCode GmbH.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.moebiusgames.pdfbox.table;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Renders a table in parts, for tables whose rows arrive over time like
+ * activity logs. The session keeps the position the table ended at (the
+ * page, the y position and the repeated heading) between the calls, so
+ * every call to {@link #appendRows(RowSource)} continues right below the
+ * last row and only costs as much as the appended rows. Appended rows
+ * use the columns and settings of the table the session was started with.
+ *
+ * Rows that are kept with the next row are only kept with rows appended
+ * in the same call. A session must not be used by several threads at once.
+ *
+ * @see PDFTable#startSession(PDFRenderContext, float)
+ */
+public final class TableRenderSession {
+
+    public static final int DEFAULT_BATCH_SIZE = 256;
+
+    private final PDFRenderContext renderContext;
+    private final PDFTable batch;
+    private final PDFTable.RenderCursor cursor;
+
+    TableRenderSession(PDFRenderContext renderContext, PDFTable batch, PDFTable.RenderCursor cursor) {
+        this.renderContext = renderContext;
+        this.batch = batch;
+        this.cursor = cursor;
+        this.batch.setContinued(cursor.getRenderedRows() > 0);
+    }
+
+    /**
+     * reports a checkpoint to the given listener whenever the rows continue
+     * on a new page and at least the given amount of pages was completed
+     * since the last checkpoint, see {@link PDFTable#resumeSession(PDFRenderContext, float, RenderCheckpoint)}
+     *
+     * @param pageInterval the min amount of pages between checkpoints
+     * @param listener the listener or null to disable checkpoints
+     * @return this
+     */
+    public TableRenderSession setCheckpoints(int pageInterval, CheckpointListener listener) {
+        if (pageInterval < 1) {
+            throw new IllegalArgumentException("page interval must be at least 1");
+        }
+        cursor.setCheckpoints(renderContext, pageInterval, listener);
+        return this;
+    }
+
+    /**
+     * renders all rows of the given source below the last rendered row
+     *
+     * @param source the source of the new rows
+     * @return the result of the rendering
+     * @throws IOException
+     */
+    public RenderResult appendRows(RowSource source) throws IOException {
+        return appendRows(source, DEFAULT_BATCH_SIZE);
+    }
+
+    /**
+     * renders all rows of the given source below the last rendered row,
+     * at most batchSize rows are held in memory at once
+     *
+     * @param source the source of the new rows
+     * @param batchSize the max amount of rows to hold in memory
+     * @return the result of the rendering
+     * @throws IOException
+     */
+    public RenderResult appendRows(RowSource source, int batchSize) throws IOException {
+        if (source == null) {
+            throw new IllegalArgumentException("null is not allowed");
+        }
+        if (batchSize < 1) {
+            throw new IllegalArgumentException("batch size must be at least 1");
+        }
+        try {
+            boolean hasMoreRows = true;
+            while (hasMoreRows) {
+                hasMoreRows = batch.fillRows(source, batchSize);
+                renderBatch();
+            }
+        } finally {
+            batch.clearRows();
+        }
+        return getResult();
+    }
+
+    /**
+     * renders copies of the given rows below the last rendered row, see
+     * {@link PDFTable#addRow(PDFTableRow)}
+     *
+     * @param rows the rows to copy, usually created with
+     * {@link PDFTable#createTemplateRow()}
+     * @return the result of the rendering
+     * @throws IOException
+     */
+    public RenderResult appendRows(List<PDFTableRow> rows) throws IOException {
+        if (rows == null) {
+            throw new IllegalArgumentException("null is not allowed");
+        }
+        try {
+            for (PDFTableRow row : rows) {
+                batch.addRow(row);
+            }
+            renderBatch();
+        } finally {
+            batch.clearRows();
+        }
+        return getResult();
+    }
+
+    /**
+     * returns the amount of rows that were rendered so far,
+     * including the rows of the table the session was started with
+     * or the rows before the checkpoint the session was resumed at
+     *
+     * @return the row count
+     */
+    public long getRenderedRows() {
+        return cursor.getRenderedRows();
+    }
+
+    /**
+     * returns the page the last row ended on
+     *
+     * @return the page
+     */
+    public PDFPageWithStream getLastPage() {
+        return cursor.getPage();
+    }
+
+    private void renderBatch() throws IOException {
+        batch.renderRows(renderContext, cursor);
+        batch.setContinued(cursor.getRenderedRows() > 0);
+    }
+
+    private RenderResult getResult() {
+        final PDFPageWithStream page = cursor.getPage();
+        return new RenderResult(renderContext.getPageCount(), page,
+                page.getRenderedYPosition(), -1);
+    }
+
+}
@@ -27,10 +27,20 @@ import java.awt.Color;
 import java.io.IOException;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.LinkedHashMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
+import org.apache.pdfbox.cos.COSName;
+import org.apache.pdfbox.pdmodel.PDDocument;
 import org.apache.pdfbox.pdmodel.PDPageContentStream;
+import org.apache.pdfbox.pdmodel.PDResources;
+import org.apache.pdfbox.pdmodel.common.PDRectangle;
 import org.apache.pdfbox.pdmodel.font.PDFont;
+import org.apache.pdfbox.pdmodel.graphics.form.PDFormXObject;
+import org.apache.pdfbox.pdmodel.interactive.annotation.PDAppearanceStream;
+import org.apache.pdfbox.util.Matrix;
 
 final class Utils {
 
@@ -40,14 +50,45 @@ final class Utils {
     private static final float CIRCLE_CONSTANT = 0.552284749831f;
     private static final Map<String, Float> FONT_HEIGHT_CACHE = new HashMap<>();
 
-    static float measureTextSize(PDFont font, int fontSize, String text) {
+    private static final Pattern HEX_COLOR_PATTERN = Pattern.compile("#([0-9a-f]{6}|[0-9a-f]{3})");
+    private static final Pattern RGB_COLOR_PATTERN = Pattern.compile("rgb\\( *([0-9]+) *, *([0-9]+) *, *([0-9]+) *\\)");
+    private static final Pattern HSL_COLOR_PATTERN = Pattern.compile("hsl\\( *([0-9]+) *, *([0-9]+)% *, *([0-9]+)% *\\)");
+    private static final int MAX_CACHED_COLORS = 1024;
+    // LRU, guarded by itself
+    private static final Map<String, Color> COLOR_CACHE = new LinkedHashMap<String, Color>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Color> eldest) {
+            return size() > MAX_CACHED_COLORS;
+        }
+    };
+    private static final Color NO_COLOR = new Color(0, 0, 0, 0); //<- marks colors that are parsed as null
+
+    /**
+     * waits for all futures and rethrows the exception of the first failed
+     * one as it was thrown by the task (instead of a CompletionException)
+     */
+    static void joinAll(CompletableFuture<?>... futures) {
         try {
-            return (font.getStringWidth(text) / 1000f) * fontSize;
-        } catch (IOException e) {
-            throw new IllegalStateException("Problem with font", e);
+            CompletableFuture.allOf(futures).join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            if (e.getCause() instanceof Error) {
+                throw (Error) e.getCause();
+            }
+            throw e;
         }
     }
 
+    /**
+     * measures the text with the width table of the font, the font itself
+     * may be shared between threads and its width cache is not thread safe
+     */
+    static float measureTextSize(PDFont font, int fontSize, String text) {
+        return GlyphWidths.of(font).getWidth(text, fontSize);
+    }
+
     @SuppressWarnings("deprecation")
     static synchronized float getFontHeight(PDFont font, float fontSize) {
         try {
@@ -72,40 +113,62 @@ final class Utils {
         }
     }
 
+    /**
+     * parses an HTML/CSS color value. The most recently used values are
+     * kept in an LRU cache, which returns the same color object for them.
+     *
+     * @param color the color value (#rrggbb, #rgb, rgb(...), hsl(...) or a name)
+     * @return the color or null if it is black or can't be parsed
+     */
     static Color htmlColorToColor(String color) {
+        Color result;
+        synchronized (COLOR_CACHE) {
+            result = COLOR_CACHE.get(color);
+        }
+        if (result == null) {
+            result = parseHtmlColor(color.trim().toLowerCase());
+            if (result == null) {
+                result = NO_COLOR;
+            }
+            synchronized (COLOR_CACHE) {
+                COLOR_CACHE.put(color, result);
+            }
+        }
+        return result == NO_COLOR ? null : result;
+    }
+
+    private static Color parseHtmlColor(String color) {
         if (color.startsWith("#")) {
-            try {
-                return new Color(Integer.parseInt(color.substring(1), 16));
-            } catch (NumberFormatException e) {
+            final Matcher matcher = HEX_COLOR_PATTERN.matcher(color);
+            if (matcher.matches()) {
+                String hex = matcher.group(1);
+                if (hex.length() == 3) {
+                    hex = new StringBuilder()
+                            .append(hex.charAt(0)).append(hex.charAt(0))
+                            .append(hex.charAt(1)).append(hex.charAt(1))
+                            .append(hex.charAt(2)).append(hex.charAt(2))
+                            .toString();
+                }
+                return new Color(Integer.parseInt(hex, 16));
             }
         } else if (color.startsWith("rgb")) {
-            Pattern pattern = Pattern.compile("rgb\\( *([0-9]+), *([0-9]+), *([0-9]+)\\)");
-            Color colorObject = null;
-            Matcher matcher = pattern.matcher(color);
+            final Matcher matcher = RGB_COLOR_PATTERN.matcher(color);
             if (matcher.matches()) {
-                colorObject =
-                        new Color(
-                                Integer.parseInt(matcher.group(1)),
-                                Integer.parseInt(matcher.group(2)),
-                                Integer.parseInt(matcher.group(3)));
+                return new Color(
+                        toColorComponent(matcher.group(1)),
+                        toColorComponent(matcher.group(2)),
+                        toColorComponent(matcher.group(3)));
             }
-            return colorObject;
-
-        } else if (color.startsWith("hsl")){
-            Pattern pattern = Pattern.compile("hsl\\( *([0-9]+), *([0-9]+)%, *([0-9]+)%\\)");
-            Color colorObject = null;
-            Matcher matcher = pattern.matcher(color);
-
+        } else if (color.startsWith("hsl")) {
+            final Matcher matcher = HSL_COLOR_PATTERN.matcher(color);
             if (matcher.matches()) {
-                colorObject =
-                        ColorUtils.getHSLColor(
-                                Integer.parseInt(matcher.group(1)),
-                                Integer.parseInt(matcher.group(2)),
-                                Integer.parseInt(matcher.group(3)));
+                return ColorUtils.getHSLColor(
+                        Integer.parseInt(matcher.group(1)) % 360,
+                        Math.min(100, Integer.parseInt(matcher.group(2))),
+                        Math.min(100, Integer.parseInt(matcher.group(3))));
             }
-            return colorObject;
         } else {
-            switch (color.trim().toLowerCase()) {
+            switch (color) {
                 case "black":
                     return null; //we treat black as null
                 case "red":
@@ -121,6 +184,60 @@ final class Utils {
         return null;
     }
 
+    private static int toColorComponent(String value) {
+        try {
+            return Math.min(255, Integer.parseInt(value));
+        } catch (NumberFormatException e) {
+            return 255;
+        }
+    }
+
+    /**
+     * creates an empty form xobject with the given bounding box. It is
+     * created as appearance stream (which is a plain form xobject), as
+     * the cells draw into a PDPageContentStream and that can only write
+     * into appearance streams, not into a PDFormContentStream.
+     *
+     * @param document the document the form belongs to
+     * @param bbox the bounding box of the form
+     * @return the new form
+     */
+    static PDAppearanceStream createForm(PDDocument document, PDRectangle bbox) {
+        final PDAppearanceStream form = new PDAppearanceStream(document);
+        form.setResources(new PDResources());
+        form.setBBox(bbox);
+        return form;
+    }
+
+    /**
+     * opens a (compressed) content stream to draw into the given form
+     *
+     * @param document the document the form belongs to
+     * @param form the form
+     * @return the content stream, needs to be closed after drawing
+     * @throws IOException
+     */
+    static PDPageContentStream openFormStream(PDDocument document, PDAppearanceStream form) throws IOException {
+        return new PDPageContentStream(document, form,
+                form.getStream().createOutputStream(COSName.FLATE_DECODE));
+    }
+
+    /**
+     * places the given form with its origin at x, y
+     *
+     * @param stream the stream to draw the form into
+     * @param form the form
+     * @param x x pos of the origin of the form
+     * @param y y pos of the origin of the form
+     * @throws IOException
+     */
+    static void drawForm(PDPageContentStream stream, PDFormXObject form, float x, float y) throws IOException {
+        stream.saveGraphicsState();
+        stream.transform(Matrix.getTranslateInstance(x, y));
+        stream.drawForm(form);
+        stream.restoreGraphicsState();
+    }
+
     /**
      *
      * @param stream
@@ -0,0 +1,79 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2019-2022 MobiusCode GmbH.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.moebiusgames.pdfbox.table;
+
+/**
+ * Formats the values that are set with {@link PDFTableCell#setValue(Object)}.
+ * Values are only formatted once the text of a cell is needed, which is
+ * usually when the table is laid out or rendered.
+ *
+ * @see PDFTableColumn#setValueFormatter(ValueFormatter)
+ */
+@FunctionalInterface
+public interface ValueFormatter {
+
+    /**
+     * formats the given value
+     *
+     * @param value the value, never null
+     * @return the text of the value
+     */
+    String format(Object value);
+
+    /**
+     * returns true if the text only depends on the value (and
+     * the value does not change), so the text of equal values
+     * can be cached
+     *
+     * @return true if the formatter is pure
+     */
+    default boolean isPure() {
+        return false;
+    }
+
+    /**
+     * returns a formatter that formats like the given formatter but
+     * is declared as pure, see {@link #isPure()}
+     *
+     * @param formatter the formatter
+     * @return the pure formatter
+     */
+    static ValueFormatter pure(ValueFormatter formatter) {
+        if (formatter == null) {
+            throw new IllegalArgumentException("null is not allowed");
+        }
+        return new ValueFormatter() {
+            @Override
+            public String format(Object value) {
+                return formatter.format(value);
+            }
+
+            @Override
+            public boolean isPure() {
+                return true;
+            }
+        };
+    }
+
+}
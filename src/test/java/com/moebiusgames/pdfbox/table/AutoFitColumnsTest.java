@@ -0,0 +1,108 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2019-2022 MobiusCode GmbH.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.moebiusgames.pdfbox.table;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assume.assumeTrue;
+
+import java.io.IOException;
+import java.lang.ref.WeakReference;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.pdmodel.PDPage;
+import org.apache.pdfbox.pdmodel.common.PDRectangle;
+import org.apache.pdfbox.pdmodel.font.PDType0Font;
+import org.junit.Test;
+
+public class AutoFitColumnsTest {
+
+    private static final Path FONT_FILE = Paths.get("/usr/share/fonts/truetype/dejavu/DejaVuSans.ttf");
+
+    public AutoFitColumnsTest() {
+    }
+
+    private static PDFTable createTable() {
+        PDFTable table = PDFTable.createWithSomeFixedColumnWidths(500, 60,
+                PDFTable.AUTO_DETERMINE_COLUMN_WIDTH, PDFTable.AUTO_DETERMINE_COLUMN_WIDTH,
+                PDFTable.AUTO_DETERMINE_COLUMN_WIDTH);
+        for (int i = 0; i < 3000; ++i) {
+            PDFTableRow row = table.addRow();
+            row.getCell(0).setContent("#" + i);
+            row.getCell(1).setContent(String.valueOf(i * 17));
+            row.getCell(2).setContent("A long description of item " + i
+                    + " that needs a lot more space than the other columns");
+            row.getCell(3).setContent("Category");
+        }
+        return table;
+    }
+
+    private static int render(PDFTable table) throws IOException {
+        try (PDDocument doc = new PDDocument()) {
+            PDFRenderContext context = new PDFRenderContext(doc, new PDPage(PDRectangle.A4));
+            table.render(context, 20);
+            return context.getPageCount();
+        }
+    }
+
+    @Test
+    public void testAutoFit() throws IOException {
+        PDFTable table = createTable();
+        final int evenPages = render(table);
+
+        table.autoFitColumns(new AutoFitOptions().setMaxSampleRows(500).setChunkSize(100));
+        assertEquals(60, table.getColumn(0).getWidth(), 0.001f);
+        assertEquals(440, table.getColumn(1).getWidth() + table.getColumn(2).getWidth()
+                + table.getColumn(3).getWidth(), 0.01f);
+        assertTrue(table.getColumn(2).getWidth() > table.getColumn(1).getWidth());
+        assertTrue(table.getColumn(2).getWidth() > table.getColumn(3).getWidth());
+        assertTrue(render(table) < evenPages);
+    }
+
+    private static WeakReference<PDDocument> renderWithEmbeddedFont() throws IOException {
+        try (PDDocument doc = new PDDocument()) {
+            PDFTable table = createTable();
+            table.getColumn(2).setFont(PDType0Font.load(doc, FONT_FILE.toFile()));
+            table.autoFitColumns();
+            PDFRenderContext context = new PDFRenderContext(doc, new PDPage(PDRectangle.A4));
+            table.render(context, 20);
+            context.closeAllPages();
+            return new WeakReference<>(doc);
+        }
+    }
+
+    @Test
+    public void testMeasuredDocumentCanBeCollected() throws Exception {
+        assumeTrue(Files.exists(FONT_FILE));
+        WeakReference<PDDocument> doc = renderWithEmbeddedFont();
+        for (int i = 0; i < 50 && doc.get() != null; ++i) {
+            System.gc();
+            Thread.sleep(20);
+        }
+        assertTrue(doc.get() == null);
+    }
+
+}
@@ -0,0 +1,73 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2019-2022 MobiusCode GmbH.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.moebiusgames.pdfbox.table;
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.IOException;
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.pdmodel.PDPage;
+import org.apache.pdfbox.pdmodel.common.PDRectangle;
+import org.junit.Test;
+
+public class CellFormCacheTest {
+
+    public CellFormCacheTest() {
+    }
+
+    @Test
+    public void testRepeatedCellsArePlacedAsForms() throws IOException {
+        try (PDDocument doc = new PDDocument()) {
+            PDFRenderContext context = new PDFRenderContext(doc, new PDPage(PDRectangle.A4));
+            CellFormCache cache = new CellFormCache(8);
+            context.setCellFormCache(cache);
+
+            PDFTable table = new PDFTable(100, 100);
+            table.setColumnHeadersMode(PDFTable.ColumnHeadersMode.NO_COLUMN_HEADERS);
+            for (int i = 0; i < 10; ++i) {
+                PDFTableRow row = table.addRow();
+                row.getCell(0).setContent("Row " + i);
+                row.getCell(1).setContent("N/A");
+            }
+            table.render(context, 20, 800);
+            context.closeAllPages();
+            PDFUtils.renderPDF(doc);
+
+            // the first "N/A" is rendered directly, the second one is recorded
+            assertEquals(1, cache.size());
+            assertEquals(8, cache.getHitCount());
+            assertEquals(8 / 20.0, cache.getHitRate(), 0.0001);
+        }
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testCacheIsBoundToOneDocument() throws IOException {
+        CellFormCache cache = new CellFormCache();
+        try (PDDocument doc1 = new PDDocument(); PDDocument doc2 = new PDDocument()) {
+            new PDFRenderContext(doc1, new PDPage()).setCellFormCache(cache);
+            new PDFRenderContext(doc2, new PDPage()).setCellFormCache(cache);
+        }
+    }
+
+}
@@ -0,0 +1,78 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2019-2022 MobiusCode GmbH.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.moebiusgames.pdfbox.table;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import java.io.IOException;
+import org.apache.pdfbox.Loader;
+import org.apache.pdfbox.cos.COSName;
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.pdmodel.PDPage;
+import org.apache.pdfbox.pdmodel.common.PDRectangle;
+import org.apache.pdfbox.text.PDFTextStripper;
+import org.junit.Test;
+
+public class ContentCompressionTest {
+
+    public ContentCompressionTest() {
+    }
+
+    private static String render(ContentCompression compression, boolean parallel) throws IOException {
+        try (PDDocument doc = new PDDocument()) {
+            PDFRenderContext context = new PDFRenderContext(doc, new PDPage(PDRectangle.A4));
+            context.setContentCompression(compression);
+            context.setParallelCompression(parallel);
+            PDFTable table = new PDFTable(300);
+            for (int i = 0; i < 200; ++i) {
+                table.addRow().getCell(0).setContent("Row " + i);
+            }
+            table.render(context, 20);
+            context.closeAllPages();
+
+            for (PDPage page : doc.getPages()) {
+                Object filter = page.getContentStreams().next().getCOSObject().getItem(COSName.FILTER);
+                if (compression == ContentCompression.NONE) {
+                    assertNull(filter);
+                } else {
+                    assertEquals(COSName.FLATE_DECODE, filter);
+                }
+            }
+            try (PDDocument loaded = Loader.loadPDF(PDFUtils.renderPDF(doc))) {
+                return new PDFTextStripper().getText(loaded);
+            }
+        }
+    }
+
+    @Test
+    public void testCompression() throws IOException {
+        final String expected = render(ContentCompression.DEFAULT, false);
+        assertEquals(expected, render(ContentCompression.NONE, false));
+        assertEquals(expected, render(ContentCompression.FASTEST, false));
+        assertEquals(expected, render(ContentCompression.BEST, true));
+        assertEquals(expected, render(ContentCompression.DEFAULT, true));
+    }
+
+}
@@ -0,0 +1,135 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2019-2022 MobiusCode GmbH.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.moebiusgames.pdfbox.table;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.pdmodel.PDPage;
+import org.apache.pdfbox.pdmodel.common.PDRectangle;
+import org.apache.pdfbox.text.PDFTextStripper;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class CsvRowSourceTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    public CsvRowSourceTest() {
+    }
+
+    @Test
+    public void testFields() throws IOException {
+        Path file = write("id,name,comment\r\n"
+                + "1,plain,\"quoted, with comma\"\r\n"
+                + "\r\n"
+                + "2,\"say \"\"hi\"\"\",\"two\nlines\"\r\n"
+                + "3,M\u00fcller,\n"
+                + "4,last");
+        // a tiny window makes records cross the window borders
+        for (int windowSize : new int[]{8, 13, CsvRowSource.DEFAULT_WINDOW_SIZE}) {
+            try (CsvRowSource csv = new CsvRowSource(file, ',', '"', windowSize)) {
+                assertArrayEquals(new String[]{"id", "name", "comment"}, csv.readHeader());
+                PDFTable table = new PDFTable(50, 100, 100);
+                while (csv.nextRow(table.addRow())) {
+                }
+                assertEquals(5, table.getRows());
+                assertRow(table.getRow(0), "1", "plain", "quoted, with comma");
+                assertRow(table.getRow(1), "2", "say \"hi\"", "two\nlines");
+                assertRow(table.getRow(2), "3", "M\u00fcller", "");
+                assertRow(table.getRow(3), "4", "last", "");
+            }
+        }
+    }
+
+    @Test
+    public void testRenderTsv() throws IOException {
+        StringBuilder sb = new StringBuilder("Name\tValue\n");
+        for (int i = 0; i < 300; ++i) {
+            sb.append("Item ").append(i).append('\t').append(i * 3).append('\n');
+        }
+        Path file = write(sb.toString());
+        try (CsvRowSource tsv = CsvRowSource.tsv(file); PDDocument doc = new PDDocument()) {
+            String[] header = tsv.readHeader();
+            PDFTable table = new PDFTable(100, 100);
+            table.getColumn(0).setHeading(header[1]);
+            table.getColumn(1).setHeading(header[0]);
+            tsv.setColumnFields(1, 0);
+            PDFRenderContext context = new PDFRenderContext(doc, new PDPage(PDRectangle.A4));
+            RenderResult result = table.render(context, 20, tsv, 64);
+            context.closeAllPages();
+            assertTrue(result.getPageCount() > 1);
+            String text = new PDFTextStripper().getText(doc);
+            assertTrue(text.contains("Value Name"));
+            assertTrue(text.contains("897 Item 299"));
+            assertFalse(text.contains("\t"));
+        }
+    }
+
+    @Test
+    public void testPureFormatter() throws IOException {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < 100; ++i) {
+            sb.append(i).append(",N/A\n");
+        }
+        Path file = write(sb.toString());
+        AtomicInteger calls = new AtomicInteger();
+        try (CsvRowSource csv = CsvRowSource.csv(file)) {
+            PDFTable table = new PDFTable(50, 100);
+            table.getColumn(1).setValueFormatter(ValueFormatter.pure(value -> {
+                calls.incrementAndGet();
+                return value.toString().toLowerCase();
+            }));
+            while (csv.nextRow(table.addRow())) {
+            }
+            for (int i = 0; i < 100; ++i) {
+                assertEquals("n/a", table.getRow(i).getCell(1).getContent());
+            }
+        }
+        assertEquals(1, calls.get());
+    }
+
+    private Path write(String content) throws IOException {
+        Path file = folder.newFile().toPath();
+        Files.write(file, content.getBytes(StandardCharsets.UTF_8));
+        return file;
+    }
+
+    private static void assertRow(PDFTableRow row, String... fields) {
+        for (int i = 0; i < fields.length; ++i) {
+            assertEquals(fields[i], row.getCell(i).getContent());
+        }
+    }
+
+}
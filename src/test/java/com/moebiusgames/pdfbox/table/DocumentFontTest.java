@@ -0,0 +1,124 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2019-2022 MobiusCode GmbH.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.moebiusgames.pdfbox.table;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import org.apache.pdfbox.cos.COSBase;
+import org.apache.pdfbox.cos.COSDictionary;
+import org.apache.pdfbox.cos.COSName;
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.pdmodel.PDPage;
+import org.apache.pdfbox.pdmodel.common.PDRectangle;
+import org.apache.pdfbox.pdmodel.font.PDFont;
+import org.apache.pdfbox.pdmodel.font.PDType1Font;
+import org.apache.pdfbox.pdmodel.font.Standard14Fonts;
+import org.junit.Test;
+
+public class DocumentFontTest {
+
+    public DocumentFontTest() {
+    }
+
+    @Test
+    public void testModifyFont() {
+        PDFont bold = PDFUtils.modifyFont(new PDType1Font(Standard14Fonts.FontName.TIMES_ROMAN),
+                PDFUtils.FontModifier.BOLD);
+        assertEquals(Standard14Fonts.FontName.TIMES_BOLD.getName(), bold.getName());
+        PDFont boldItalic = PDFUtils.modifyFont(bold, PDFUtils.FontModifier.ITALIC, PDFUtils.FontModifier.BOLD);
+        assertEquals(Standard14Fonts.FontName.TIMES_BOLD_ITALIC.getName(), boldItalic.getName());
+        assertSame(bold, PDFUtils.getBoldVariant(new PDType1Font(Standard14Fonts.FontName.TIMES_ROMAN)));
+    }
+
+    @Test
+    public void testOneDictionaryPerFont() throws IOException {
+        PDFTable table = new PDFTable(100, 100, 100);
+        table.getColumn(2).setFont(new PDType1Font(Standard14Fonts.FontName.HELVETICA));
+        for (int i = 0; i < 200; ++i) {
+            PDFTableRow row = table.addRow();
+            row.getCell(0).setContent("Row " + i);
+            row.getCell(1).setTextType(TextType.HTML).setContent("<b>bold</b> <i>italic</i>");
+            row.getCell(2).setContent("plain");
+        }
+
+        try (PDDocument doc = new PDDocument()) {
+            PDFRenderContext context = new PDFRenderContext(doc, new PDPage(PDRectangle.A4));
+            table.render(context, 20);
+            context.closeAllPages();
+
+            // all pages refer to the same dictionaries by the same names
+            Set<COSBase> dictionaries = new HashSet<>();
+            Map<COSName, COSBase> names = new HashMap<>();
+            for (PDPage page : doc.getPages()) {
+                COSDictionary fonts = page.getResources().getCOSObject().getCOSDictionary(COSName.FONT);
+                for (COSName name : fonts.keySet()) {
+                    COSBase font = fonts.getDictionaryObject(name);
+                    dictionaries.add(font);
+                    COSBase previous = names.put(name, font);
+                    if (previous != null) {
+                        assertSame(previous, font);
+                    }
+                }
+            }
+            // regular, bold (headings and html) and italic
+            assertEquals(3, dictionaries.size());
+        }
+    }
+
+    @Test
+    public void testMeasureSharedFontConcurrently() throws Exception {
+        PDFont shared = PDFUtils.getStandardFont(Standard14Fonts.FontName.COURIER_BOLD_OBLIQUE);
+        PDFont own = new PDType1Font(Standard14Fonts.FontName.COURIER_BOLD_OBLIQUE);
+        String text = "The quick brown fox jumps over the lazy dog 0123456789 \u00e4\u00f6\u00fc\u00df";
+
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            Future<?>[] futures = new Future<?>[8];
+            for (int i = 0; i < futures.length; ++i) {
+                futures[i] = executor.submit(() -> {
+                    for (int j = 0; j < 100; ++j) {
+                        assertEquals(own.getStringWidth(text) * 12 / 1000,
+                                Utils.measureTextSize(shared, 12, text), 0.001f);
+                    }
+                    return null;
+                });
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+}
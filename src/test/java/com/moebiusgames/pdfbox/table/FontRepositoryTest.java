@@ -0,0 +1,99 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2019-2022 MobiusCode GmbH.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.moebiusgames.pdfbox.table;
+
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assume.assumeTrue;
+
+import java.io.IOException;
+import java.lang.ref.WeakReference;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import org.apache.pdfbox.Loader;
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.pdmodel.PDPage;
+import org.apache.pdfbox.pdmodel.common.PDRectangle;
+import org.apache.pdfbox.pdmodel.font.PDType0Font;
+import org.apache.pdfbox.text.PDFTextStripper;
+import org.junit.Test;
+
+public class FontRepositoryTest {
+
+    private static final Path FONT_FILE = Paths.get("/usr/share/fonts/truetype/dejavu/DejaVuSans.ttf");
+
+    public FontRepositoryTest() {
+    }
+
+    @Test
+    public void testSharedFont() throws IOException {
+        assumeTrue(Files.exists(FONT_FILE));
+        final FontRepository repository = FontRepository.getShared();
+        try (PDDocument doc1 = new PDDocument(); PDDocument doc2 = new PDDocument()) {
+            PDType0Font font1 = repository.getFont(doc1, FONT_FILE);
+            PDType0Font font2 = repository.getFont(doc2, FONT_FILE);
+            assertSame(font1, repository.getFont(doc1, FONT_FILE));
+            assertNotSame(font1, font2);
+            assertSame(repository.getTrueTypeFont(FONT_FILE), repository.getTrueTypeFont(FONT_FILE));
+
+            PDFRenderContext context = new PDFRenderContext(doc1, new PDPage(PDRectangle.A4));
+            PDFTable table = new PDFTable(300);
+            table.getColumn(0).setFont(doc1, FONT_FILE);
+            // the emoji is not in the BMP and must be filtered out
+            table.addRow().getCell(0).setContent("Gr\u00fc\u00dfe \u20ac \u03a9 \ud83d\ude00");
+            table.render(context, 20);
+            context.closeAllPages();
+            try (PDDocument loaded = Loader.loadPDF(PDFUtils.renderPDF(doc1))) {
+                assertTrue(new PDFTextStripper().getText(loaded).contains("Gr\u00fc\u00dfe \u20ac \u03a9"));
+            }
+        }
+    }
+
+    private static WeakReference<PDDocument> useFont() throws IOException {
+        try (PDDocument doc = new PDDocument()) {
+            PDFRenderContext context = new PDFRenderContext(doc, new PDPage(PDRectangle.A4));
+            PDFTable table = new PDFTable(300);
+            table.getColumn(0).setFont(doc, FONT_FILE);
+            table.addRow().getCell(0).setContent("Invoice");
+            table.render(context, 20);
+            context.closeAllPages();
+            PDFUtils.renderPDF(doc);
+            return new WeakReference<>(doc);
+        }
+    }
+
+    @Test
+    public void testDocumentCanBeCollected() throws Exception {
+        assumeTrue(Files.exists(FONT_FILE));
+        WeakReference<PDDocument> doc = useFont();
+        for (int i = 0; i < 50 && doc.get() != null; ++i) {
+            System.gc();
+            Thread.sleep(20);
+        }
+        assertTrue(doc.get() == null);
+    }
+
+}
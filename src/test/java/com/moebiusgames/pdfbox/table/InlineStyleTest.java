@@ -0,0 +1,116 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2019-2022 MobiusCode GmbH.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.moebiusgames.pdfbox.table;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.awt.Color;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import org.apache.pdfbox.io.IOUtils;
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.pdmodel.PDPage;
+import org.apache.pdfbox.pdmodel.common.PDRectangle;
+import org.junit.Test;
+
+public class InlineStyleTest {
+
+    public InlineStyleTest() {
+    }
+
+    @Test
+    public void testParse() {
+        LayoutFrame frame = new LayoutFrame();
+        frame.htmlSize = 3;
+        InlineStyle.parse("color: #f00; Background-Color: rgb(0, 0, 300); margin: 3px;"
+                + "font-weight: 700; font-style: oblique; font-size: 16px; text-decoration: underline")
+                .applyTo(frame);
+        assertEquals(new Color(255, 0, 0), frame.color);
+        assertEquals(new Color(0, 0, 255), frame.backgroundColor);
+        assertEquals(Boolean.TRUE, frame.bold);
+        assertEquals(Boolean.TRUE, frame.italic);
+        assertEquals(Integer.valueOf(12), frame.fontSize);
+        assertNull(frame.htmlSize);
+        assertEquals(Boolean.TRUE, frame.underline);
+
+        InlineStyle.parse("font-weight: normal; text-decoration: none; font-size: large").applyTo(frame);
+        assertEquals(Boolean.FALSE, frame.bold);
+        assertEquals(Boolean.FALSE, frame.underline);
+        assertEquals(Integer.valueOf(12), frame.fontSize);
+    }
+
+    @Test
+    public void testUnknownColor() {
+        assertNull(Utils.htmlColorToColor("no-such-color"));
+        // the parse failure is cached, but still returned as null
+        assertNull(Utils.htmlColorToColor("no-such-color"));
+        assertSame(Utils.htmlColorToColor("#00ff00"), Utils.htmlColorToColor("#00ff00"));
+
+        LayoutFrame frame = new LayoutFrame();
+        frame.color = Color.BLUE;
+        InlineStyle.parse("color: no-such-color").applyTo(frame);
+        assertEquals(Color.BLUE, frame.color);
+    }
+
+    @Test
+    public void testLeastRecentlyUsedEviction() {
+        final InlineStyle used = InlineStyle.parse("color: red");
+        final InlineStyle unused = InlineStyle.parse("font-size: 0pt");
+        for (int i = 1; i <= 2000; ++i) {
+            InlineStyle.parse("font-size: " + i + "pt");
+            assertSame(used, InlineStyle.parse("color: red"));
+        }
+        assertNotSame(unused, InlineStyle.parse("font-size: 0pt"));
+    }
+
+    @Test
+    public void testBackgroundColor() throws IOException {
+        try (PDDocument doc = new PDDocument()) {
+            PDFRenderContext context = new PDFRenderContext(doc, new PDPage(PDRectangle.A4));
+            context.setContentCompression(ContentCompression.NONE);
+            PDFTable table = new PDFTable(300);
+            table.setColumnHeadersMode(PDFTable.ColumnHeadersMode.NO_COLUMN_HEADERS);
+            table.addRow().getCell(0).setTextType(TextType.HTML)
+                    .setContent("Plain <span style=\"background-color: #ff0000\">marked</span> plain");
+            table.render(context, 20);
+            context.closeAllPages();
+
+            final String content;
+            try (InputStream in = doc.getPage(0).getContents()) {
+                content = new String(IOUtils.toByteArray(in), StandardCharsets.US_ASCII);
+            }
+            final int background = content.indexOf("1 0 0 sc");
+            assertTrue(background >= 0);
+            assertTrue(content.indexOf(" re\nf\n", background) > background);
+            assertTrue(content.indexOf("(marked) Tj", background) > background);
+            assertEquals(background, content.lastIndexOf("1 0 0 sc"));
+        }
+    }
+
+}
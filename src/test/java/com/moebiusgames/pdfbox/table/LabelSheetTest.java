@@ -0,0 +1,116 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2019-2022 MobiusCode GmbH.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.moebiusgames.pdfbox.table;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.util.HashSet;
+import java.util.Collections;
+import java.util.Set;
+import org.apache.pdfbox.cos.COSBase;
+import org.apache.pdfbox.cos.COSName;
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.pdmodel.PDPage;
+import org.apache.pdfbox.pdmodel.common.PDRectangle;
+import org.apache.pdfbox.text.PDFTextStripper;
+import org.junit.Test;
+
+public class LabelSheetTest {
+
+    public LabelSheetTest() {
+    }
+
+    @Test
+    public void testFlowAcrossPages() throws IOException {
+        LabelSheet sheet = new LabelSheet(PDRectangle.A4, 3, 2)
+                .setMargins(20, 20, 30, 30)
+                .setGutters(10, 10)
+                .setFirstSlot(2);
+        assertEquals((PDRectangle.A4.getWidth() - 60) / 3, sheet.getLabelWidth(), 0.001f);
+        sheet.addStaticText("FROM: ACME", 5, 5, 150);
+        sheet.addField(5, 30, 150);
+        sheet.addField(5, 50, 150).setFontSize(8);
+
+        final int[] counter = {0};
+        try (PDDocument doc = new PDDocument()) {
+            PDFRenderContext context = new PDFRenderContext(doc, new PDPage(PDRectangle.A4));
+            RenderResult result = sheet.render(context, row -> {
+                if (counter[0] == 14) {
+                    return false;
+                }
+                row.getCell(0).setContent("Name" + counter[0]);
+                row.getCell(1).setValue(1000 + counter[0]);
+                counter[0]++;
+                return true;
+            });
+            // 4 labels on the first page, then 6 and 4
+            assertEquals(3, result.getPageCount());
+            float labelBottom = PDRectangle.A4.getHeight() - 30 - 2 * sheet.getLabelHeight() - 10;
+            assertEquals(labelBottom, result.getLastPage().getRenderedYPosition(), 0.01f);
+
+            context.closeAllPages();
+            String text = new PDFTextStripper().getText(doc);
+            for (int i = 0; i < 14; ++i) {
+                assertTrue(text.contains("Name" + i));
+                assertTrue(text.contains("" + (1000 + i)));
+            }
+
+            // the static part is one form that is shared by all pages
+            Set<COSBase> forms = new HashSet<>();
+            for (PDPage page : doc.getPages()) {
+                for (COSName name : page.getResources().getXObjectNames()) {
+                    forms.add(page.getResources().getCOSObject()
+                            .getCOSDictionary(COSName.XOBJECT).getDictionaryObject(name));
+                }
+            }
+            assertEquals(1, forms.size());
+        }
+    }
+
+    @Test
+    public void testValuesAreFormattedOnCallingThread() throws IOException {
+        LabelSheet sheet = new LabelSheet(PDRectangle.A4, 3, 8);
+        Set<Thread> threads = Collections.synchronizedSet(new HashSet<>());
+        sheet.addField(5, 5, 150).setValueFormatter(value -> {
+            threads.add(Thread.currentThread());
+            return "Label " + value;
+        });
+
+        final int[] counter = {0};
+        try (PDDocument doc = new PDDocument()) {
+            PDFRenderContext context = new PDFRenderContext(doc, new PDPage(PDRectangle.A4));
+            sheet.render(context, row -> {
+                if (counter[0] == 100) {
+                    return false;
+                }
+                row.getCell(0).setValue(counter[0]++);
+                return true;
+            });
+        }
+        assertEquals(Collections.singleton(Thread.currentThread()), threads);
+    }
+
+}
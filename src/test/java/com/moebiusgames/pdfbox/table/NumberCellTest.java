@@ -0,0 +1,106 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2019-2022 MobiusCode GmbH.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.moebiusgames.pdfbox.table;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.text.DecimalFormat;
+import java.text.DecimalFormatSymbols;
+import java.util.Locale;
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.pdmodel.PDPage;
+import org.apache.pdfbox.pdmodel.common.PDRectangle;
+import org.apache.pdfbox.text.PDFTextStripper;
+import org.junit.Test;
+
+public class NumberCellTest {
+
+    public NumberCellTest() {
+    }
+
+    @Test
+    public void testFormat() {
+        PDFTable table = new PDFTable(100, 100, 100);
+        table.getColumn(1).setNumberFormat(new DecimalFormat("#,##0.00", DecimalFormatSymbols.getInstance(Locale.US)));
+        PDFTableRow row = table.addRow();
+        row.getCell(0).setNumber(42L);
+        row.getCell(1).setNumber(1234.5);
+        row.getCell(2).setNumber(new BigDecimal("1E+3"));
+        assertEquals("42", row.getCell(0).getContent());
+        assertEquals("1,234.50", row.getCell(1).getContent());
+        assertEquals("1000", row.getCell(2).getContent());
+        assertTrue(row.getCell(1).isNumber());
+
+        row.getCell(1).setContent("text");
+        assertFalse(row.getCell(1).isNumber());
+    }
+
+    @Test
+    public void testLayoutMatchesPlainContent() throws IOException {
+        PDFTable table = new PDFTable(100, 100);
+        table.setNumbers(0, 123456789L, -42L);
+        table.getRow(0).getCell(1).setContent("123456789");
+        table.getRow(1).getCell(1).setContent("-42");
+        assertEquals(2, table.getRows());
+        for (int rowIndex = 0; rowIndex < 2; ++rowIndex) {
+            PDFTableRow row = table.getRow(rowIndex);
+            row.getCell(0).updateContentLayout();
+            row.getCell(1).updateContentLayout();
+            assertEquals(row.getCell(1).getMinRequiredHeight(), row.getCell(0).getMinRequiredHeight(), 0.001f);
+            assertEquals(1, row.getCell(0).getLaidoutContent().getNumRows());
+        }
+
+        // too narrow: numbers are broken like plain content
+        PDFTable narrowTable = new PDFTable(20, 20);
+        narrowTable.setNumbers(0, 1234567890123L);
+        narrowTable.getRow(0).getCell(1).setContent("1234567890123");
+        narrowTable.getRow(0).getCell(0).updateContentLayout();
+        narrowTable.getRow(0).getCell(1).updateContentLayout();
+        assertEquals(narrowTable.getRow(0).getCell(1).getLaidoutContent().getNumRows(),
+                narrowTable.getRow(0).getCell(0).getLaidoutContent().getNumRows());
+    }
+
+    @Test
+    public void testRender() throws IOException {
+        PDFTable table = new PDFTable(100, 100);
+        table.setColumnHeadersMode(PDFTable.ColumnHeadersMode.NO_COLUMN_HEADERS);
+        table.getColumn(1).setNumberFormat("0.0");
+        table.setNumbers(0, 1L, 22L, 333L);
+        table.setNumbers(1, 0.25, 1.5);
+        try (PDDocument doc = new PDDocument()) {
+            PDFRenderContext context = new PDFRenderContext(doc, new PDPage(PDRectangle.A4));
+            table.render(context, 20);
+            context.closeAllPages();
+            String text = new PDFTextStripper().getText(doc);
+            assertTrue(text.contains("22"));
+            assertTrue(text.contains("1.5"));
+            assertTrue(text.contains("333"));
+        }
+    }
+
+}
@@ -0,0 +1,62 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2019-2022 MobiusCode GmbH.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.moebiusgames.pdfbox.table;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.pdmodel.PDPage;
+import org.apache.pdfbox.pdmodel.common.PDRectangle;
+import org.junit.Test;
+
+public class PDFTableAsyncTest {
+
+    public PDFTableAsyncTest() {
+    }
+
+    @Test
+    public void testRenderAndSaveAsync() throws Exception {
+        try (PDDocument doc = new PDDocument()) {
+            PDFRenderContext context = new PDFRenderContext(doc, new PDPage(PDRectangle.A4));
+            PDFTable table = new PDFTable(100, 300);
+            for (int i = 0; i < 200; ++i) {
+                PDFTableRow row = table.addRow();
+                row.getCell(0).setContent("Row " + i);
+                row.getCell(1).setContent("Some comment for row " + i);
+            }
+
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            RenderResult result = table.renderAsync(context, 20, 800)
+                    .thenCompose(rendered -> context.saveAsync(out))
+                    .get();
+
+            assertTrue(result.getPageCount() > 1);
+            assertEquals(context.getPageCount(), result.getPageCount());
+            assertEquals(out.size(), result.getBytesWritten());
+        }
+    }
+
+}
@@ -0,0 +1,136 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2019-2022 MobiusCode GmbH.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.moebiusgames.pdfbox.table;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+import java.awt.Color;
+import java.io.IOException;
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.pdmodel.PDPage;
+import org.apache.pdfbox.pdmodel.common.PDRectangle;
+import org.junit.Test;
+
+public class PDFTableTemplateTest {
+
+    public PDFTableTemplateTest() {
+    }
+
+    @Test
+    public void testTableFromTemplate() {
+        PDFTable template = new PDFTable(100, 200);
+        template.setColumnHeadersMode(PDFTable.ColumnHeadersMode.COLUMN_HEADERS_ON_EVERY_PAGE);
+        template.getColumn(0).setHeading("Amount").setBackgroundColor(Color.LIGHT_GRAY);
+
+        PDFTable table = new PDFTable(template);
+        assertEquals(2, table.getColumns());
+        assertEquals(0, table.getRows());
+        assertEquals("Amount", table.getColumn(0).getHeading());
+        assertEquals(PDFTable.ColumnHeadersMode.COLUMN_HEADERS_ON_EVERY_PAGE, table.getColumnHeadersMode());
+
+        table.getColumn(0).setHeading("Total");
+        assertEquals("Amount", template.getColumn(0).getHeading());
+    }
+
+    @Test
+    public void testPaginationPolicyIsCopied() {
+        PDFTable template = new PDFTable(100);
+        template.getPaginationPolicy().setMinWidowLines(2);
+
+        PDFTable table = new PDFTable(template);
+        PDFTable sibling = new PDFTable(template);
+        assertNotSame(template.getPaginationPolicy(), table.getPaginationPolicy());
+        assertEquals(2, table.getPaginationPolicy().getMinWidowLines());
+
+        table.getPaginationPolicy().setSplitAllowed(true).setMinWidowLines(3);
+        assertFalse(template.getPaginationPolicy().isSplitAllowed());
+        assertFalse(sibling.getPaginationPolicy().isSplitAllowed());
+        assertEquals(2, template.getPaginationPolicy().getMinWidowLines());
+        assertEquals(2, sibling.getPaginationPolicy().getMinWidowLines());
+    }
+
+    @Test
+    public void testBordersAreCopiedOnWrite() throws IOException {
+        PDFTable template = new PDFTable(100);
+        template.getColumn(0).getBorderLeft().setLineWidth(2);
+        PDFTable table = new PDFTable(template);
+        assertEquals(2, table.getColumn(0).getBorderLeft().getLineWidth(), 0);
+
+        table.getColumn(0).getBorderTop().setLineWidth(3);
+        template.getColumn(0).getBorderLeft().setLineWidth(4);
+        assertEquals(1, template.getColumn(0).getBorderTop().getLineWidth(), 0);
+        assertEquals(2, table.getColumn(0).getBorderLeft().getLineWidth(), 0);
+        assertSame(table.getColumn(0).getBorderTop(), table.getColumn(0).getBorderTop());
+
+        PDFTableRow templateRow = template.createTemplateRow();
+        templateRow.getCell(0).setBorderBottom(new PDFTableBorder());
+        PDFTableRow row = table.addRow(templateRow);
+        row.getCell(0).getBorderBottom().setColor(Color.RED);
+        assertEquals(Color.BLACK, templateRow.getCell(0).getBorderBottom().getColor());
+
+        // implicit copies don't affect the table either
+        try (PDDocument doc = new PDDocument()) {
+            template.startSession(new PDFRenderContext(doc, new PDPage(PDRectangle.A4)), 20);
+            template.getColumn(0).getBorderRight().setLineWidth(3);
+        }
+    }
+
+    @Test
+    public void testRowFromTemplate() throws IOException {
+        PDFTable template = new PDFTable(100, 100, 100);
+        PDFTableRow totalsRow = template.createTemplateRow();
+        totalsRow.setMinHeight(30);
+        totalsRow.getCell(0).setContent("Total").setFontSize(12);
+        totalsRow.getCell(1).merge(1);
+
+        PDFTable table = new PDFTable(template);
+        table.addRow().getCell(0).setContent("Some value");
+        PDFTableRow row = table.addRow(totalsRow);
+
+        assertEquals(1, row.getIndex());
+        assertEquals(30, row.getMinHeight(), 0.0001);
+        assertEquals("Total", row.getCell(0).getContent());
+        assertEquals(12, row.getCell(0).getFontSize());
+        assertEquals(2, row.getCell(1).getSize());
+        assertNull(row.getCell(2));
+
+        // the layout of the template is carried over
+        assertNotNull(row.getCell(0).getLaidoutContent());
+        PDFTableCell.LaidoutContent layout = row.getCell(0).getLaidoutContent();
+        row.getCell(0).updateContentLayout();
+        assertSame(layout, row.getCell(0).getLaidoutContent());
+
+        // but changes are laid out again
+        row.getCell(0).setContent("Grand total");
+        row.getCell(0).updateContentLayout();
+        assertNotSame(layout, row.getCell(0).getLaidoutContent());
+        assertEquals("Total", totalsRow.getCell(0).getContent());
+    }
+
+}
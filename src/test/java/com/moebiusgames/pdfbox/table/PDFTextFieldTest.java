@@ -23,10 +23,14 @@
  */
 package com.moebiusgames.pdfbox.table;
 
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
 import java.io.IOException;
 import org.apache.pdfbox.pdmodel.PDDocument;
 import org.apache.pdfbox.pdmodel.PDPage;
 import org.apache.pdfbox.pdmodel.common.PDRectangle;
+import org.apache.pdfbox.text.PDFTextStripper;
 import org.junit.Test;
 
 public class PDFTextFieldTest {
@@ -48,4 +52,34 @@ public class PDFTextFieldTest {
         PDFUtils.renderPDF(doc);
     }
 
+    @Test
+    public void testRenderDirectlyOrSplit() throws IOException {
+        try (PDDocument doc = new PDDocument()) {
+            PDFRenderContext context = new PDFRenderContext(doc, new PDPage(PDRectangle.A4));
+
+            // fits: rendered directly at the given position
+            PDFLabel label = new PDFLabel(200);
+            label.setText("A short label");
+            label.render(context, 20, 500);
+            assertEquals(1, context.getPageCount());
+            float renderedY = context.getLastPage().getRenderedYPosition();
+            assertTrue(renderedY < 500 && renderedY > 450);
+
+            // does not fit: split across pages like a table row
+            StringBuilder sb = new StringBuilder();
+            for (int i = 0; i < 30; ++i) {
+                sb.append("Word").append(i).append(' ');
+            }
+            PDFLabel longLabel = new PDFLabel(60);
+            longLabel.setText(sb.toString());
+            longLabel.render(context, 20, 100);
+            assertEquals(2, context.getPageCount());
+
+            context.closeAllPages();
+            String text = new PDFTextStripper().getText(doc);
+            assertTrue(text.contains("A short label"));
+            assertTrue(text.contains("Word29"));
+        }
+    }
+
 }
@@ -0,0 +1,117 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2019-2022 MobiusCode GmbH.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.moebiusgames.pdfbox.table;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import org.apache.pdfbox.Loader;
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.pdmodel.PDPage;
+import org.apache.pdfbox.pdmodel.common.PDRectangle;
+import org.junit.Test;
+
+public class PDFUtilsSaveTest {
+
+    public PDFUtilsSaveTest() {
+    }
+
+    private static PDFTable createTable(int rows) {
+        PDFTable table = new PDFTable(300);
+        for (int i = 0; i < rows; ++i) {
+            table.addRow().getCell(0).setContent("Row " + i);
+        }
+        return table;
+    }
+
+    @Test
+    public void testSave() throws IOException {
+        try (PDDocument doc = new PDDocument()) {
+            PDFRenderContext context = new PDFRenderContext(doc, new PDPage(PDRectangle.A4));
+            createTable(200).render(context, 20);
+            context.closeAllPages();
+
+            ByteArrayOutputStream bOut = new ByteArrayOutputStream();
+            long size = PDFUtils.save(doc, bOut);
+            assertEquals(bOut.size(), size);
+
+            // saving the same document again may change its size slightly
+            ByteArrayOutputStream channelOut = new ByteArrayOutputStream();
+            long channelSize = PDFUtils.save(doc, Channels.newChannel(channelOut));
+            assertEquals(channelOut.size(), channelSize);
+
+            ByteBuffer buffer = ByteBuffer.allocateDirect((int) size * 2);
+            long bufferSize = PDFUtils.save(doc, buffer);
+            assertEquals(buffer.position(), bufferSize);
+            buffer.flip();
+            byte[] bytes = new byte[buffer.remaining()];
+            buffer.get(bytes);
+            try (PDDocument loaded = Loader.loadPDF(bytes)) {
+                assertEquals(doc.getNumberOfPages(), loaded.getNumberOfPages());
+            }
+
+            try {
+                PDFUtils.save(doc, ByteBuffer.allocateDirect(100));
+                fail("buffer overflow not detected");
+            } catch (IOException e) {
+                // expected
+            }
+        }
+    }
+
+    @Test
+    public void testOutputMode() throws IOException {
+        try (PDDocument doc = new PDDocument()) {
+            PDFRenderContext context = new PDFRenderContext(doc, new PDPage(PDRectangle.A4));
+            createTable(2000).render(context, 20);
+            context.closeAllPages();
+
+            long classicSize = PDFUtils.save(doc, new ByteArrayOutputStream(), PDFUtils.CLASSIC_OUTPUT);
+            context.setOutputMode(PDFUtils.COMPACT_OUTPUT);
+            ByteArrayOutputStream bOut = new ByteArrayOutputStream();
+            long compactSize = context.save(bOut);
+            assertTrue(compactSize < classicSize);
+            try (PDDocument loaded = Loader.loadPDF(bOut.toByteArray())) {
+                assertEquals(doc.getNumberOfPages(), loaded.getNumberOfPages());
+            }
+        }
+    }
+
+    @Test
+    public void testRenderTable() throws IOException {
+        ByteArrayOutputStream bOut = new ByteArrayOutputStream();
+        RenderResult result = PDFUtils.renderTable(createTable(200), PDRectangle.A4, 20, bOut);
+        assertTrue(result.getPageCount() > 1);
+        assertEquals(bOut.size(), result.getBytesWritten());
+        try (PDDocument loaded = Loader.loadPDF(bOut.toByteArray())) {
+            assertEquals(result.getPageCount(), loaded.getNumberOfPages());
+        }
+    }
+
+}
@@ -0,0 +1,138 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2019-2022 MobiusCode GmbH.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.moebiusgames.pdfbox.table;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.pdmodel.PDPage;
+import org.apache.pdfbox.pdmodel.common.PDRectangle;
+import org.apache.pdfbox.text.PDFTextStripper;
+import org.junit.Test;
+
+public class PaginationPolicyTest {
+
+    public PaginationPolicyTest() {
+    }
+
+    @Test
+    public void testKeepTogether() throws IOException {
+        PDFTable table = createTable();
+        table.addRow().getCell(0).setContent(lines("Tall", 20));
+        try (PDDocument doc = new PDDocument()) {
+            PDFRenderContext context = render(table, doc);
+            assertEquals(2, context.getPageCount());
+            assertFalse(getPageText(doc, 1).contains("Tall"));
+            assertTrue(getPageText(doc, 2).contains("Tall000"));
+            assertTrue(getPageText(doc, 2).contains("Tall019"));
+        }
+    }
+
+    @Test
+    public void testSplitWithOrphansAndWidows() throws IOException {
+        PDFTable table = createTable();
+        table.setPaginationPolicy(new PaginationPolicy()
+                .setSplitAllowed(true)
+                .setMinOrphanLines(2)
+                .setMinWidowLines(18));
+        table.addRow().getCell(0).setContent(lines("Tall", 20));
+        try (PDDocument doc = new PDDocument()) {
+            render(table, doc);
+            String firstPage = getPageText(doc, 1);
+            String secondPage = getPageText(doc, 2);
+            assertTrue(firstPage.contains("Tall001"));
+            assertFalse(firstPage.contains("Tall002"));
+            assertTrue(secondPage.contains("Tall002"));
+            assertTrue(secondPage.contains("Tall019"));
+        }
+
+        // not even the orphans fit: the row starts on the next page
+        table.setPaginationPolicy(new PaginationPolicy()
+                .setSplitAllowed(true)
+                .setMinOrphanLines(15));
+        try (PDDocument doc = new PDDocument()) {
+            render(table, doc);
+            assertFalse(getPageText(doc, 1).contains("Tall"));
+        }
+    }
+
+    @Test
+    public void testKeepWithNext() throws IOException {
+        PDFTable table = createTable();
+        table.addRow().setKeepWithNext(true).getCell(0).setContent("Caption");
+        table.addRow().getCell(0).setContent(lines("Tall", 20));
+        try (PDDocument doc = new PDDocument()) {
+            render(table, doc);
+            assertFalse(getPageText(doc, 1).contains("Caption"));
+            assertTrue(getPageText(doc, 2).contains("Caption"));
+        }
+    }
+
+    @Test
+    public void testRowTallerThanPage() throws IOException {
+        PDFTable table = createTable();
+        table.addRow().getCell(0).setContent(lines("Huge", 150));
+        try (PDDocument doc = new PDDocument()) {
+            PDFRenderContext context = render(table, doc);
+            for (int page = 1; page <= context.getPageCount(); ++page) {
+                assertTrue(getPageText(doc, page).contains("Huge"));
+            }
+            assertTrue(getPageText(doc, context.getPageCount()).contains("Huge149"));
+        }
+    }
+
+    private static PDFTable createTable() {
+        PDFTable table = new PDFTable(60);
+        table.setColumnHeadersMode(PDFTable.ColumnHeadersMode.NO_COLUMN_HEADERS);
+        return table;
+    }
+
+    private static PDFRenderContext render(PDFTable table, PDDocument doc) throws IOException {
+        PDFRenderContext context = new PDFRenderContext(doc, new PDPage(PDRectangle.A4));
+        // start close to the end of the first page
+        table.render(context, 20, table.getPageSettings().getMarginBottom() + 100);
+        context.closeAllPages();
+        return context;
+    }
+
+    private static String lines(String prefix, int count) {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < count; ++i) {
+            // one word per line in the narrow column
+            sb.append(prefix).append(String.format("%03d ", i));
+        }
+        return sb.toString();
+    }
+
+    private static String getPageText(PDDocument doc, int page) throws IOException {
+        PDFTextStripper stripper = new PDFTextStripper();
+        stripper.setStartPage(page);
+        stripper.setEndPage(page);
+        return stripper.getText(doc);
+    }
+
+}
@@ -0,0 +1,91 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2019-2022 MobiusCode GmbH.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.moebiusgames.pdfbox.table;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+import java.io.IOException;
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.pdmodel.PDPage;
+import org.apache.pdfbox.pdmodel.common.PDRectangle;
+import org.junit.Test;
+
+public class RenderBudgetTest {
+
+    public RenderBudgetTest() {
+    }
+
+    private static PDFTable createTable(int rows) {
+        PDFTable table = new PDFTable(300);
+        for (int i = 0; i < rows; ++i) {
+            table.addRow().getCell(0).setContent("Row " + i);
+        }
+        return table;
+    }
+
+    @Test
+    public void testMaxPages() throws IOException {
+        try (PDDocument doc = new PDDocument()) {
+            PDFRenderContext context = new PDFRenderContext(doc, new PDPage(PDRectangle.A4));
+            context.setRenderBudget(new RenderBudget().setMaxPages(2));
+            try {
+                createTable(1000).render(context, 20, 800);
+                fail("budget not enforced");
+            } catch (RenderAbortedException e) {
+                assertEquals(RenderAbortedException.Reason.MAX_PAGES, e.getReason());
+                assertEquals(2, e.getPageCount());
+                assertEquals(2, context.getPageCount());
+            }
+            // all pages are closed, so the partial document can be saved
+            PDFUtils.renderPDF(doc);
+        }
+    }
+
+    @Test
+    public void testMaxRowsAndCancel() throws IOException {
+        try (PDDocument doc = new PDDocument()) {
+            PDFRenderContext context = new PDFRenderContext(doc, new PDPage(PDRectangle.A4));
+            RenderBudget budget = new RenderBudget().setMaxRows(5);
+            context.setRenderBudget(budget);
+            try {
+                createTable(10).render(context, 20, 800);
+                fail("budget not enforced");
+            } catch (RenderAbortedException e) {
+                assertEquals(RenderAbortedException.Reason.MAX_ROWS, e.getReason());
+                assertEquals(5, e.getRenderedRows());
+            }
+
+            budget.setMaxRows(PDFTable.NOT_SET);
+            budget.cancel();
+            try {
+                createTable(10).render(context, 20, 800);
+                fail("cancel not enforced");
+            } catch (RenderAbortedException e) {
+                assertEquals(RenderAbortedException.Reason.CANCELLED, e.getReason());
+            }
+        }
+    }
+
+}
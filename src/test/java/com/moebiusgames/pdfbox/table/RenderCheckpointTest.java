@@ -0,0 +1,150 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2019-2022 MobiusCode GmbH.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.moebiusgames.pdfbox.table;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.pdmodel.PDPage;
+import org.apache.pdfbox.pdmodel.common.PDRectangle;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class RenderCheckpointTest {
+
+    private static final int ROWS = 400;
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    public RenderCheckpointTest() {
+    }
+
+    private static PDFTable createTable() {
+        PDFTable table = new PDFTable(60, 300);
+        table.setColumnHeadersMode(PDFTable.ColumnHeadersMode.COLUMN_HEADERS_ON_EVERY_PAGE);
+        return table;
+    }
+
+    /**
+     * a source of rows starting at the given index that fails at the given row
+     */
+    private static RowSource rows(long start, long failAt) {
+        final long[] next = {start};
+        return row -> {
+            if (next[0] == failAt) {
+                throw new IllegalStateException("interrupted");
+            }
+            if (next[0] == ROWS) {
+                return false;
+            }
+            int i = (int) next[0]++;
+            if (i % 100 == 50) {
+                // taller than a page, so it is split
+                StringBuilder sb = new StringBuilder();
+                for (int j = 0; j < 80; ++j) {
+                    sb.append("Tall").append(j).append(' ');
+                }
+                row.getCell(0).setContent(sb.toString());
+            } else {
+                row.getCell(0).setContent("Row " + i);
+            }
+            row.getCell(1).setContent("Event " + i);
+            return true;
+        };
+    }
+
+    private byte[] render(Path directory, long failAt, List<RenderCheckpoint> checkpoints) throws IOException {
+        CheckpointSegments segments = new CheckpointSegments(directory);
+        RenderCheckpoint checkpoint = segments.getLastCheckpoint();
+        try (PDDocument doc = new PDDocument()) {
+            PDFRenderContext context = new PDFRenderContext(doc, new PDPage(PDRectangle.A4));
+            TableRenderSession session = checkpoint == null
+                    ? createTable().startSession(context, 20)
+                    : createTable().resumeSession(context, 20, checkpoint);
+            session.setCheckpoints(3, (ctx, cp) -> {
+                checkpoints.add(cp);
+                segments.checkpoint(ctx, cp);
+            });
+            session.appendRows(rows(session.getRenderedRows(), failAt), 32);
+            assertEquals(ROWS, session.getRenderedRows());
+            segments.finish(context);
+        }
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        segments.merge(out);
+        return out.toByteArray();
+    }
+
+    @Test
+    public void testResume() throws IOException {
+        List<RenderCheckpoint> checkpoints = new ArrayList<>();
+        List<byte[]> expected = PDFTestUtils.contents(render(folder.newFolder().toPath(), -1, checkpoints));
+
+        // interrupt after a checkpoint within a split row
+        RenderCheckpoint splitCheckpoint = null;
+        for (RenderCheckpoint checkpoint : checkpoints) {
+            if (checkpoint.isRowSplit() && checkpoint.getRowIndex() > 100) {
+                splitCheckpoint = checkpoint;
+                break;
+            }
+        }
+        assertNotNull(splitCheckpoint);
+        Path directory = folder.newFolder().toPath();
+        try {
+            render(directory, splitCheckpoint.getRowIndex() + 20, new ArrayList<>());
+            fail("render should have been interrupted");
+        } catch (IllegalStateException e) {
+            assertEquals("interrupted", e.getMessage());
+        }
+        assertEquals(splitCheckpoint, new CheckpointSegments(directory).getLastCheckpoint());
+
+        List<byte[]> actual = PDFTestUtils.contents(render(directory, -1, new ArrayList<>()));
+        assertEquals(expected.size(), actual.size());
+        for (int i = 0; i < expected.size(); ++i) {
+            assertArrayEquals("page " + i, expected.get(i), actual.get(i));
+        }
+        assertTrue(new CheckpointSegments(directory).getLastCheckpoint().getPageCount() < actual.size());
+    }
+
+    @Test
+    public void testWriteAndRead() throws IOException {
+        RenderCheckpoint checkpoint = new RenderCheckpoint(1234567890123L, new int[]{3, 0, 7}, 42);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        checkpoint.writeTo(out);
+        assertEquals(checkpoint, RenderCheckpoint.readFrom(new java.io.ByteArrayInputStream(out.toByteArray())));
+        assertNull(new CheckpointSegments(folder.newFolder().toPath()).getLastCheckpoint());
+    }
+
+}
@@ -0,0 +1,91 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2019-2022 MobiusCode GmbH.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.moebiusgames.pdfbox.table;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.pdmodel.PDPage;
+import org.apache.pdfbox.pdmodel.common.PDRectangle;
+import org.junit.Test;
+
+public class RenderEstimateTest {
+
+    public RenderEstimateTest() {
+    }
+
+    @Test
+    public void testEstimate() throws IOException {
+        PDFTable table = new PDFTable(100, 300);
+        table.setColumnHeadersMode(PDFTable.ColumnHeadersMode.COLUMN_HEADERS_ON_EVERY_PAGE);
+        for (int i = 0; i < 1000; ++i) {
+            PDFTableRow row = table.addRow();
+            row.getCell(0).setContent("Row " + i);
+            row.getCell(1).setContent("A comment for row " + i + " that is long enough to span two lines"
+                    + " in a column of this width");
+        }
+        RenderEstimate estimate = table.estimate(PDRectangle.A4.getHeight(), 32);
+        assertEquals(32, estimate.getSampledRows());
+        assertTrue(estimate.getModelHeapBytes() > 0);
+        assertTrue(estimate.getLayoutHeapBytes() > 0);
+
+        try (PDDocument doc = new PDDocument()) {
+            PDFRenderContext context = new PDFRenderContext(doc, new PDPage(PDRectangle.A4));
+            table.render(context, 20);
+            context.closeAllPages();
+            assertEquals(context.getPageCount(), estimate.getPageCount());
+            long bytes = PDFUtils.renderPDF(doc).length;
+            assertTrue(estimate.getOutputBytes() > bytes / 2 && estimate.getOutputBytes() < bytes * 2);
+        }
+    }
+
+    @Test
+    public void testMinHeightAndDeferredValues() throws IOException {
+        PDFTable table = new PDFTable(100, 300);
+        for (int i = 0; i < 200; ++i) {
+            PDFTableRow row = table.addRow();
+            row.setMinHeight(40);
+            row.getCell(0).setValue(i);
+            row.getCell(1).setContent("Row " + i);
+        }
+        RenderEstimate estimate = table.estimate(PDRectangle.A4.getHeight(), 16);
+
+        // only the sampled values are formatted
+        int formatted = 0;
+        for (int i = 0; i < table.getRows(); ++i) {
+            if (table.getRow(i).getCell(0).getFormattedContentLength() >= 0) {
+                formatted++;
+            }
+        }
+        assertEquals(16, formatted);
+
+        // every row takes at least its min height
+        final float usableHeight = PDRectangle.A4.getHeight() - table.getPageSettings().getMarginTop()
+                - table.getPageSettings().getMarginBottom();
+        assertTrue(estimate.getPageCount() >= Math.ceil(200 * 40 / usableHeight));
+    }
+
+}
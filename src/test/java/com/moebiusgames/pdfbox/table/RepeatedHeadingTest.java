@@ -0,0 +1,84 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2019-2022 MobiusCode GmbH.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.moebiusgames.pdfbox.table;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import org.apache.pdfbox.cos.COSBase;
+import org.apache.pdfbox.cos.COSName;
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.pdmodel.PDPage;
+import org.apache.pdfbox.pdmodel.common.PDRectangle;
+import org.junit.Test;
+
+public class RepeatedHeadingTest {
+
+    public RepeatedHeadingTest() {
+    }
+
+    @Test
+    public void testHeadingIsOneForm() throws IOException {
+        PDFTable table = new PDFTable(100, 300);
+        table.setColumnHeadersMode(PDFTable.ColumnHeadersMode.COLUMN_HEADERS_ON_EVERY_PAGE);
+        table.getColumn(0).setHeading("Date");
+        table.getColumn(1).setHeading("Event");
+        for (int i = 0; i < 300; ++i) {
+            PDFTableRow row = table.addRow();
+            row.getCell(0).setContent("Day " + i);
+            row.getCell(1).setContent("Event " + i);
+        }
+
+        try (PDDocument doc = new PDDocument()) {
+            PDFRenderContext context = new PDFRenderContext(doc, new PDPage(PDRectangle.A4));
+            context.setContentCompression(ContentCompression.NONE);
+            table.render(context, 20);
+            context.closeAllPages();
+            assertTrue(doc.getNumberOfPages() > 2);
+
+            // the first page draws the heading, all others use the same form
+            Set<COSBase> forms = new HashSet<>();
+            List<byte[]> contents = PDFTestUtils.contents(doc);
+            for (int i = 1; i < doc.getNumberOfPages(); ++i) {
+                PDPage page = doc.getPage(i);
+                int names = 0;
+                for (COSName name : page.getResources().getXObjectNames()) {
+                    forms.add(page.getResources().getCOSObject()
+                            .getCOSDictionary(COSName.XOBJECT).getDictionaryObject(name));
+                    String content = new String(contents.get(i), StandardCharsets.US_ASCII);
+                    assertTrue(content.contains("/" + name.getName() + " Do"));
+                    names++;
+                }
+                assertEquals(1, names);
+            }
+            assertEquals(1, forms.size());
+        }
+    }
+
+}
@@ -0,0 +1,117 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2019-2022 MobiusCode GmbH.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.moebiusgames.pdfbox.table;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.lang.reflect.Proxy;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.pdmodel.PDPage;
+import org.apache.pdfbox.pdmodel.common.PDRectangle;
+import org.apache.pdfbox.text.PDFTextStripper;
+import org.junit.Test;
+
+public class ResultSetBindingTest {
+
+    public ResultSetBindingTest() {
+    }
+
+    @Test
+    public void testRenderWhileIterating() throws IOException, SQLException {
+        List<Object[]> records = new ArrayList<>();
+        for (int i = 0; i < 500; ++i) {
+            records.add(new Object[]{"Name " + i, (long) i * 100, i % 7 == 0 ? null : "Comment " + i});
+        }
+
+        PDFTable table = new PDFTable(150, 100, 200);
+        table.setColumnHeadersMode(PDFTable.ColumnHeadersMode.COLUMN_HEADERS_ON_EVERY_PAGE);
+        table.getColumn(1).setNumberFormat("0");
+
+        List<Integer> pageCounts = new ArrayList<>();
+        String streamedText;
+        int streamedPages;
+        try (PDDocument doc = new PDDocument()) {
+            PDFRenderContext context = new PDFRenderContext(doc, new PDPage(PDRectangle.A4));
+            RenderResult result = new ResultSetBinding(table)
+                    .bind(0, "name")
+                    .bind(1, 2)
+                    .bind(2, rs -> {
+                        pageCounts.add(context.getPageCount());
+                        return rs.getObject("comment");
+                    })
+                    .render(createResultSet(records, 50), context, 20);
+            context.closeAllPages();
+            streamedText = new PDFTextStripper().getText(doc);
+            streamedPages = result.getPageCount();
+        }
+        // pages are rendered before all records are read
+        assertTrue(pageCounts.get(pageCounts.size() - 1) > pageCounts.get(0));
+
+        for (Object[] record : records) {
+            PDFTableRow row = table.addRow();
+            row.getCell(0).setContent((String) record[0]);
+            row.getCell(1).setNumber((long) record[1]);
+            row.getCell(2).setContent(record[2] == null ? "" : (String) record[2]);
+        }
+        try (PDDocument doc = new PDDocument()) {
+            PDFRenderContext context = new PDFRenderContext(doc, new PDPage(PDRectangle.A4));
+            table.render(context, 20);
+            context.closeAllPages();
+            assertEquals(context.getPageCount(), streamedPages);
+            assertEquals(new PDFTextStripper().getText(doc), streamedText);
+        }
+    }
+
+    /**
+     * a forward only result set over the given records with
+     * the columns "name", "amount" and "comment"
+     */
+    private static ResultSet createResultSet(List<Object[]> records, int fetchSize) {
+        final List<String> labels = java.util.Arrays.asList("name", "amount", "comment");
+        final int[] cursor = {-1};
+        return (ResultSet) Proxy.newProxyInstance(ResultSet.class.getClassLoader(),
+                new Class<?>[]{ResultSet.class}, (proxy, method, args) -> {
+                    switch (method.getName()) {
+                        case "next":
+                            return ++cursor[0] < records.size();
+                        case "getFetchSize":
+                            return fetchSize;
+                        case "getObject":
+                            final int columnIndex = args[0] instanceof String
+                                    ? labels.indexOf(args[0])
+                                    : (Integer) args[0] - 1;
+                            return records.get(cursor[0])[columnIndex];
+                        default:
+                            throw new SQLException("not supported: " + method.getName());
+                    }
+                });
+    }
+
+}
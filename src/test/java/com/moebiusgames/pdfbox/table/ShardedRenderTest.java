@@ -0,0 +1,161 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2019-2022 MobiusCode GmbH.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.moebiusgames.pdfbox.table;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import org.apache.pdfbox.Loader;
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.pdmodel.PDPage;
+import org.apache.pdfbox.pdmodel.common.PDRectangle;
+import org.apache.pdfbox.text.PDFTextStripper;
+import org.junit.Test;
+
+public class ShardedRenderTest {
+
+    public ShardedRenderTest() {
+    }
+
+    private static PDFTable createTable(PDFTable.ColumnHeadersMode mode) {
+        PDFTable table = new PDFTable(60, 200, 250);
+        table.setColumnHeadersMode(mode);
+        table.getColumn(0).setHeading("No");
+        table.getColumn(1).setHeading("Text");
+        table.getColumn(2).setHeading("Event");
+        for (int i = 0; i < 1500; ++i) {
+            PDFTableRow row = table.addRow();
+            row.getCell(0).setContent("Row " + i);
+            StringBuilder sb = new StringBuilder();
+            // every now and then a row that is split across pages
+            final int words = i % 97 == 5 ? 400 : (i * 7) % 30;
+            for (int j = 0; j < words; ++j) {
+                sb.append("word").append(j).append(' ');
+            }
+            row.getCell(1).setContent(sb.toString());
+            row.getCell(2).setContent("Event " + i);
+            row.setKeepWithNext(i % 13 == 0);
+        }
+        return table;
+    }
+
+    private static byte[] render(PDFTable.ColumnHeadersMode mode, int shards) throws IOException {
+        try (PDDocument doc = new PDDocument()) {
+            PDFRenderContext context = new PDFRenderContext(doc, new PDPage(PDRectangle.A4));
+            PDFTable title = new PDFTable(300);
+            title.setColumnHeadersMode(PDFTable.ColumnHeadersMode.NO_COLUMN_HEADERS);
+            title.addRow().getCell(0).setContent("Report");
+            title.render(context, 20);
+
+            PDFTable table = createTable(mode);
+            if (shards == 0) {
+                table.render(context, 20);
+            } else {
+                RenderResult result = table.renderSharded(context, 20, shards);
+                assertEquals(context.getPageCount(), result.getPageCount());
+                assertEquals(context.getLastPage().getRenderedYPosition(), result.getRenderedYPosition(), 0);
+            }
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            context.save(out);
+            return out.toByteArray();
+        }
+    }
+
+    private static void assertSamePages(PDFTable.ColumnHeadersMode mode) throws IOException {
+        List<byte[]> expected = PDFTestUtils.contents(render(mode, 0));
+        assertTrue(expected.size() > 50);
+        for (int shards : new int[]{2, 7}) {
+            List<byte[]> actual = PDFTestUtils.contents(render(mode, shards));
+            assertEquals(expected.size(), actual.size());
+            for (int i = 0; i < expected.size(); ++i) {
+                assertArrayEquals(shards + " shards, page " + i, expected.get(i), actual.get(i));
+            }
+        }
+    }
+
+    @Test
+    public void testHeadingsOnEveryPage() throws IOException {
+        assertSamePages(PDFTable.ColumnHeadersMode.COLUMN_HEADERS_ON_EVERY_PAGE);
+    }
+
+    @Test
+    public void testHeadingsOnFirstPage() throws IOException {
+        assertSamePages(PDFTable.ColumnHeadersMode.COLUMN_HEADERS_ON_FIRST_PAGE);
+    }
+
+    @Test
+    public void testContinueAfterTable() throws IOException {
+        try (PDDocument doc = new PDDocument()) {
+            PDFRenderContext context = new PDFRenderContext(doc, new PDPage(PDRectangle.A4));
+            createTable(PDFTable.ColumnHeadersMode.COLUMN_HEADERS_ON_EVERY_PAGE).renderSharded(context, 20, 4);
+            final int pages = context.getPageCount();
+            assertEquals(pages, doc.getNumberOfPages());
+
+            PDFTable footer = new PDFTable(300);
+            footer.setColumnHeadersMode(PDFTable.ColumnHeadersMode.NO_COLUMN_HEADERS);
+            footer.addRow().getCell(0).setContent("The end");
+            footer.render(context, 20);
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            context.save(out);
+
+            try (PDDocument saved = Loader.loadPDF(out.toByteArray())) {
+                assertEquals(context.getPageCount(), saved.getNumberOfPages());
+                PDFTextStripper stripper = new PDFTextStripper();
+                stripper.setStartPage(pages);
+                stripper.setEndPage(pages);
+                final String lastPage = stripper.getText(saved);
+                assertTrue(lastPage.contains("Row 1499"));
+                assertTrue(lastPage.contains("The end"));
+            }
+        }
+    }
+
+    @Test
+    public void testValuesAreFormattedOnCallingThread() throws IOException {
+        Set<Thread> threads = Collections.synchronizedSet(new HashSet<>());
+        PDFTable table = new PDFTable(100, 100);
+        table.getColumn(1).setValueFormatter(value -> {
+            threads.add(Thread.currentThread());
+            return "Value " + value;
+        });
+        for (int i = 0; i < 500; ++i) {
+            PDFTableRow row = table.addRow();
+            row.getCell(0).setValue(i);
+            row.getCell(1).setValue(i);
+        }
+        try (PDDocument doc = new PDDocument()) {
+            PDFRenderContext context = new PDFRenderContext(doc, new PDPage(PDRectangle.A4));
+            table.renderSharded(context, 20, 3);
+        }
+        assertEquals(Collections.singleton(Thread.currentThread()), threads);
+    }
+
+}
@@ -0,0 +1,101 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2019-2022 MobiusCode GmbH.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.moebiusgames.pdfbox.table;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import org.apache.pdfbox.Loader;
+import org.apache.pdfbox.cos.COSDictionary;
+import org.apache.pdfbox.cos.COSName;
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.pdmodel.PDPage;
+import org.apache.pdfbox.pdmodel.common.PDRectangle;
+import org.apache.pdfbox.text.PDFTextStripper;
+import org.junit.Test;
+
+public class SharedResourcesTest {
+
+    public SharedResourcesTest() {
+    }
+
+    private static PDFTable createTable(int rows) {
+        PDFTable table = new PDFTable(150, 150);
+        for (int i = 0; i < rows; ++i) {
+            PDFTableRow row = table.addRow();
+            row.getCell(0).setContent("Row " + i);
+            row.getCell(1).setTextType(TextType.HTML).setContent("<i>italic</i> " + i);
+        }
+        return table;
+    }
+
+    @Test
+    public void testSharedResources() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (PDDocument doc = new PDDocument()) {
+            PDFRenderContext context = new PDFRenderContext(doc, new PDPage(PDRectangle.A4));
+            context.setSharedResources(true);
+            assertTrue(context.isSharedResources());
+            createTable(200).render(context, 20);
+            assertTrue(context.getPageCount() > 2);
+            context.save(out);
+        }
+
+        try (PDDocument doc = Loader.loadPDF(out.toByteArray())) {
+            COSDictionary resources = doc.getPage(0).getResources().getCOSObject();
+            for (PDPage page : doc.getPages()) {
+                assertSame(resources, page.getResources().getCOSObject());
+            }
+            // regular, bold (heading) and italic
+            int fonts = 0;
+            for (COSName name : doc.getPage(0).getResources().getFontNames()) {
+                fonts++;
+            }
+            assertEquals(3, fonts);
+            String text = new PDFTextStripper().getText(doc);
+            assertTrue(text.contains("Row 199"));
+        }
+    }
+
+    @Test
+    public void testPagesWithContentKeepTheirResources() throws IOException {
+        try (PDDocument doc = new PDDocument()) {
+            PDFRenderContext context = new PDFRenderContext(doc, new PDPage(PDRectangle.A4));
+            createTable(10).render(context, 20);
+            context.setSharedResources(true);
+            PDFPageWithStream second = context.addPage();
+            PDFPageWithStream third = context.addPage();
+            assertNotSame(context.getPage(0).getPage().getResources().getCOSObject(),
+                    second.getPage().getResources().getCOSObject());
+            assertSame(second.getPage().getResources().getCOSObject(),
+                    third.getPage().getResources().getCOSObject());
+            context.closeAllPages();
+        }
+    }
+
+}
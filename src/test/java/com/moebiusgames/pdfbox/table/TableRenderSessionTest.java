@@ -0,0 +1,110 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2019-2022 MobiusCode GmbH.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.moebiusgames.pdfbox.table;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.pdmodel.PDPage;
+import org.apache.pdfbox.pdmodel.common.PDRectangle;
+import org.junit.Test;
+
+public class TableRenderSessionTest {
+
+    public TableRenderSessionTest() {
+    }
+
+    private static PDFTable createTable() {
+        PDFTable table = new PDFTable(100, 300);
+        table.setColumnHeadersMode(PDFTable.ColumnHeadersMode.COLUMN_HEADERS_ON_EVERY_PAGE);
+        table.getColumn(0).setHeading("Time");
+        table.getColumn(1).setHeading("Event");
+        return table;
+    }
+
+    private static void fill(PDFTableRow row, int i) {
+        row.getCell(0).setContent("12:" + i);
+        row.getCell(1).setContent(i % 7 == 0
+                ? "A longer event that needs more than a single line in its cell " + i
+                : "Event " + i);
+    }
+
+    @Test
+    public void testAppendedRowsMatchOneRender() throws IOException {
+        List<byte[]> expected;
+        try (PDDocument doc = new PDDocument()) {
+            PDFRenderContext context = new PDFRenderContext(doc, new PDPage(PDRectangle.A4));
+            context.setContentCompression(ContentCompression.NONE);
+            PDFTable table = createTable();
+            for (int i = 0; i < 300; ++i) {
+                fill(table.addRow(), i);
+            }
+            table.render(context, 20);
+            context.closeAllPages();
+            expected = PDFTestUtils.contents(doc);
+        }
+
+        try (PDDocument doc = new PDDocument()) {
+            PDFRenderContext context = new PDFRenderContext(doc, new PDPage(PDRectangle.A4));
+            context.setContentCompression(ContentCompression.NONE);
+            PDFTable table = createTable();
+            for (int i = 0; i < 100; ++i) {
+                fill(table.addRow(), i);
+            }
+            TableRenderSession session = table.startSession(context, 20);
+            assertEquals(100, session.getRenderedRows());
+
+            final int[] next = {100};
+            for (int end : new int[]{150, 250}) {
+                session.appendRows(row -> {
+                    if (next[0] == end) {
+                        return false;
+                    }
+                    fill(row, next[0]++);
+                    return true;
+                }, 16);
+            }
+            List<PDFTableRow> rows = new ArrayList<>();
+            for (int i = 250; i < 300; ++i) {
+                PDFTableRow row = table.createTemplateRow();
+                fill(row, i);
+                rows.add(row);
+            }
+            RenderResult result = session.appendRows(rows);
+            assertEquals(300, session.getRenderedRows());
+            assertEquals(expected.size(), result.getPageCount());
+
+            context.closeAllPages();
+            List<byte[]> actual = PDFTestUtils.contents(doc);
+            for (int i = 0; i < expected.size(); ++i) {
+                assertArrayEquals("page " + i, expected.get(i), actual.get(i));
+            }
+        }
+    }
+
+}
@@ -0,0 +1,109 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2019-2022 MobiusCode GmbH.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.moebiusgames.pdfbox.table;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.time.LocalDate;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.Test;
+
+public class ValueFormatterTest {
+
+    public ValueFormatterTest() {
+    }
+
+    @Test
+    public void testDeferredFormatting() throws IOException {
+        AtomicInteger calls = new AtomicInteger();
+        PDFTable table = new PDFTable(100);
+        table.getColumn(0).setValueFormatter(value -> {
+            calls.incrementAndGet();
+            return "Day " + ((LocalDate) value).getDayOfMonth();
+        });
+        for (int i = 0; i < 10; ++i) {
+            table.addRow().getCell(0).setValue(LocalDate.of(2020, 1, 1));
+        }
+        assertEquals(0, calls.get());
+
+        table.getHeight();
+        assertEquals(10, calls.get());
+        assertEquals("Day 1", table.getRow(3).getCell(0).getContent());
+        assertEquals(10, calls.get());
+    }
+
+    @Test
+    public void testPureFormatterCache() {
+        AtomicInteger calls = new AtomicInteger();
+        PDFTable template = new PDFTable(100);
+        template.getColumn(0).setValueFormatter(ValueFormatter.pure(value -> {
+            calls.incrementAndGet();
+            return value.toString().toLowerCase();
+        }));
+        PDFTable table = new PDFTable(template);
+        PDFTable otherTable = new PDFTable(template);
+        for (int i = 0; i < 10; ++i) {
+            table.addRow().getCell(0).setValue(TextType.values()[i % 2]);
+            otherTable.addRow().getCell(0).setValue(TextType.values()[i % 2]);
+        }
+        for (int i = 0; i < 10; ++i) {
+            assertEquals(TextType.values()[i % 2].name().toLowerCase(), table.getRow(i).getCell(0).getContent());
+            assertSame(table.getRow(i).getCell(0).getContent(), otherTable.getRow(i).getCell(0).getContent());
+        }
+        assertEquals(2, calls.get());
+    }
+
+    @Test
+    public void testDefaultFormatting() {
+        PDFTable table = new PDFTable(100);
+        table.getColumn(0).setNumberFormat("0.00");
+        PDFTableRow row = table.addRow();
+        row.getCell(0).setValue(2);
+        assertTrue(row.getCell(0).isNumber());
+        assertEquals("2.00", row.getCell(0).getContent().replace(',', '.'));
+        assertEquals(2, row.getCell(0).getValue());
+
+        row.getCell(0).setValue(null);
+        assertEquals("", row.getCell(0).getContent());
+
+        row.getCell(0).setContent("text");
+        assertNull(row.getCell(0).getValue());
+    }
+
+    @Test
+    public void testKeepsTextType() throws IOException {
+        PDFTable table = new PDFTable(100);
+        table.getColumn(0).setValueFormatter(value -> "<b>" + value + "</b>");
+        PDFTableCell cell = table.addRow().getCell(0);
+        cell.setTextType(TextType.HTML);
+        cell.setValue("bold");
+        assertEquals(TextType.HTML, cell.getTextType());
+        assertEquals("bold", cell.getMeasurableText());
+    }
+
+}